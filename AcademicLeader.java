@@ -9,6 +9,17 @@ public class AcademicLeader {
     private String phone;
     private String age;
 
+    // Report engine switch: fork/join (true) or single-threaded (false).
+    // Defaults to -Dafs.reports.parallel, or true if not set
+    private static boolean parallelReports =
+        Boolean.parseBoolean(System.getProperty("afs.reports.parallel", "true"));
+
+    // Shared report aggregate, rebuilt only when results, modules or grading change
+    private ReportAggregate reportCache;
+    private long cachedResultsVersion = -1;
+    private long cachedModulesVersion = -1;
+    private long cachedAssessmentsVersion = -1;
+
     // Constructor - loads user data when object is created
     public AcademicLeader(String userID) {
         this.userID = userID;
@@ -17,18 +28,17 @@ public class AcademicLeader {
 
     // LOAD PROFILE FROM FILE
     private void loadProfile() {
-        List<String> users = Helpers.readFromFile("users.txt");
-        for (String line : users) {
-            String[] parts = line.split("\\|");
-            if (parts.length >= 8 && parts[0].equals(this.userID)) {
-                this.password = parts[2];
-                this.name = parts[3];
-                this.gender = parts[4];
-                this.email = parts[5];
-                this.phone = parts[6];
-                this.age = parts[7];
-                break;
-            }
+        String line = Helpers.findRecord("users.txt", this.userID);
+        if (line == null) return;
+        
+        String[] parts = Fields.split(line);
+        if (parts.length >= 8) {
+            this.password = parts[2];
+            this.name = parts[3];
+            this.gender = parts[4];
+            this.email = parts[5];
+            this.phone = parts[6];
+            this.age = parts[7];
         }
     }
 
@@ -38,6 +48,11 @@ public class AcademicLeader {
         if (!Helpers.validateEmail(newEmail)) {
             return false;
         }
+
+        // Another user already has this email
+        if (Helpers.emailTaken(newEmail, userID)) {
+            return false;
+        }
         
         // Create updated record string
         String updatedRecord = userID + "|Academic Leader|" + password + "|" + 
@@ -72,7 +87,7 @@ public class AcademicLeader {
         
         // Save to file: moduleID|moduleName|leaderID
         String record = moduleID + "|" + moduleName + "|" + userID;
-        Helpers.writeToFile("modules.txt", record);
+        if (!Helpers.writeToFile("modules.txt", record)) return null;
         
         return moduleID;
     }
@@ -80,14 +95,14 @@ public class AcademicLeader {
     // GET MY MODULES
     public List<String[]> getMyModules() {
         List<String[]> myModules = new ArrayList<>();
-        List<String> allModules = Helpers.readFromFile("modules.txt");
+        // Leader index lookup (field 2 of modules.txt) instead of a full scan
+        List<String> allModules = Helpers.findRecordsByField("modules.txt", 2, userID);
         
         for (String line : allModules) {
             if (line.trim().isEmpty()) continue;
             
-            String[] parts = line.split("\\|");
-            if (parts.length >= 3 && parts[2].equals(userID)) {
-                myModules.add(parts);
+            if (Fields.equals(line, 2, userID)) {
+                myModules.add(Fields.split(line));
             }
         }
         
@@ -142,94 +157,56 @@ public class AcademicLeader {
         
         if (!isMyModule) return false;
         
-        // Check if assignment already exists for this module
-        List<String> assignments = Helpers.readFromFile("assignments.txt");
-        boolean exists = false;
-        
-        for (String line : assignments) {
-            String[] parts = line.split("\\|");
-            if (parts.length >= 3 && parts[2].equals(moduleID)) {
-                exists = true;
-                break;
-            }
-        }
-        
-        if (exists) {
-            // Update existing assignment
-            List<String> updated = new ArrayList<>();
-            for (String line : assignments) {
-                String[] parts = line.split("\\|");
-                if (parts.length >= 3 && parts[2].equals(moduleID)) {
-                    updated.add(userID + "|" + lecturerID + "|" + moduleID);
-                } else {
-                    updated.add(line);
-                }
-            }
-            Helpers.overwriteFile("assignments.txt", updated);
-        } else {
-            // Create new assignment: leaderID|lecturerID|moduleID
-            String record = userID + "|" + lecturerID + "|" + moduleID;
-            Helpers.writeToFile("assignments.txt", record);
-        }
-        
-        return true;
+        // Replace the module's existing assignment (moduleID index), or add one
+        // Format: leaderID|lecturerID|moduleID
+        String record = userID + "|" + lecturerID + "|" + moduleID;
+        if (Helpers.updateRecordsByField("assignments.txt", 2, moduleID, record)) return true;
+        return Helpers.writeToFile("assignments.txt", record);
     }
     
     // GET MY ASSIGNMENTS
     public List<String[]> getMyAssignments() {
         List<String[]> myAssignments = new ArrayList<>();
-        List<String> assignments = Helpers.readFromFile("assignments.txt");
         
-        for (String line : assignments) {
-            if (line.trim().isEmpty()) continue;
-            
-            String[] parts = line.split("\\|");
-            if (parts.length >= 3 && parts[0].equals(userID)) {
-                myAssignments.add(parts);
+        // leaderID is field 0, so the primary index finds them
+        for (String line : Helpers.findRecordsByField("assignments.txt", 0, userID)) {
+            if (Fields.count(line) >= 3) {
+                myAssignments.add(Fields.split(line));
             }
         }
         
         return myAssignments;
     }
 
-    // REPORT 1: GRADE DISTRIBUTION
-    public String getGradeDistributionReport() {
-        Map<String, Integer> gradeCount = new LinkedHashMap<>();
-        
-        // Load grading system
-        List<String> grading = Helpers.readFromFile("grading.txt");
-        for (String line : grading) {
-            if (line.trim().isEmpty()) continue;
-            String[] parts = line.split("\\|");
-            if (parts.length >= 1) {
-                gradeCount.put(parts[0], 0);
+    // SHARED REPORT DATA
+    // One pass over results.txt feeds reports 1 and 2 (see ReportAggregate);
+    // both grade each student on their weighted module total.
+    // Synchronized: the GUI builds reports on background threads
+    private synchronized ReportAggregate getReportAggregate() {
+        long resultsVersion = RecordStore.of("results.txt").version();
+        long modulesVersion = RecordStore.of("modules.txt").version();
+        long assessmentsVersion = RecordStore.of("assessments.txt").version();
+        
+        if (reportCache == null || resultsVersion != cachedResultsVersion
+                || modulesVersion != cachedModulesVersion
+                || assessmentsVersion != cachedAssessmentsVersion
+                || reportCache.getScale() != GradingScale.current()) {
+            List<String> myModuleIDs = new ArrayList<>();
+            for (String[] module : getMyModules()) {
+                myModuleIDs.add(module[0]);
             }
+            reportCache = ReportAggregate.build(myModuleIDs, parallelReports);
+            cachedResultsVersion = resultsVersion;
+            cachedModulesVersion = modulesVersion;
+            cachedAssessmentsVersion = assessmentsVersion;
         }
         
-        // Get my module IDs
-        Set<String> myModuleIDs = new HashSet<>();
-        for (String[] module : getMyModules()) {
-            myModuleIDs.add(module[0]);
-        }
-        
-        // Count grades from results
-        List<String> results = Helpers.readFromFile("results.txt");
-        for (String line : results) {
-            if (line.trim().isEmpty()) continue;
-            
-            String[] parts = line.split("\\|");
-            if (parts.length >= 4 && myModuleIDs.contains(parts[1])) {
-                try {
-                    double marks = Double.parseDouble(parts[3]);
-                    String grade = getGradeFromMarks(marks);
-                    if (gradeCount.containsKey(grade)) {
-                        gradeCount.put(grade, gradeCount.get(grade) + 1);
-                    }
-                } catch (NumberFormatException e) {
-                    continue;
-                }
-            }
-        }
+        return reportCache;
+    }
+
+    // REPORT 1: GRADE DISTRIBUTION
+    public String getGradeDistributionReport() {
+        Map<String, Integer> gradeCount = getReportAggregate().getGradeDistribution();
         
         // Build report string
         StringBuilder report = new StringBuilder();
@@ -239,51 +216,18 @@ public class AcademicLeader {
         
         return report.toString();
     }
-    
-    // Helper method to convert marks to grade
-    private String getGradeFromMarks(double marks) {
-        List<String> grading = Helpers.readFromFile("grading.txt");
-        for (String line : grading) {
-            String[] parts = line.split("\\|");
-            if (parts.length >= 3) {
-                try {
-                    double min = Double.parseDouble(parts[1]);
-                    double max = Double.parseDouble(parts[2]);
-                    if (marks >= min && marks <= max) {
-                        return parts[0];
-                    }
-                } catch (NumberFormatException e) {
-                    continue;
-                }
-            }
-        }
-        return "F";
-    }
 
     // REPORT 2: PASS/FAIL RATE
     public String getPassFailReport(String moduleID) {
-        int passCount = 0;
-        int failCount = 0;
-        
-        List<String> results = Helpers.readFromFile("results.txt");
-        for (String line : results) {
-            if (line.trim().isEmpty()) continue;
-            
-            String[] parts = line.split("\\|");
-            if (parts.length >= 4 && parts[1].equals(moduleID)) {
-                try {
-                    double marks = Double.parseDouble(parts[3]);
-                    if (marks >= 50) {
-                        passCount++;
-                    } else {
-                        failCount++;
-                    }
-                } catch (NumberFormatException e) {
-                    continue;
-                }
-            }
+        ReportAggregate.ModuleSummary summary = getReportAggregate().getModule(moduleID);
+        if (summary == null) {
+            // Not one of my modules - aggregate it on its own
+            summary = ReportAggregate.build(Collections.singletonList(moduleID), false).getModule(moduleID);
         }
         
+        int passCount = summary.pass;
+        int failCount = summary.fail;
+        
         int total = passCount + failCount;
         String passRate = total > 0 ? String.format("%.2f%%", passCount * 100.0 / total) : "0%";
         String failRate = total > 0 ? String.format("%.2f%%", failCount * 100.0 / total) : "0%";
@@ -292,6 +236,24 @@ public class AcademicLeader {
                "Fail: " + failCount + " (" + failRate + ")";
     }
 
+    public static void setParallelReports(boolean parallel) {
+        parallelReports = parallel;
+    }
+
+    public static boolean isParallelReports() {
+        return parallelReports;
+    }
+
+    // REPORT ENGINE TIMING: sequential vs fork/join on the same data
+    public String getReportEngineComparison() {
+        List<String> myModuleIDs = new ArrayList<>();
+        for (String[] module : getMyModules()) {
+            myModuleIDs.add(module[0]);
+        }
+        return "Current mode: " + (parallelReports ? "parallel" : "sequential") + "\n\n"
+               + ReportAggregate.compareModes(myModuleIDs);
+    }
+
     // REPORT 3: LECTURER WORKLOAD
     public String getLecturerWorkloadReport() {
         Map<String, Integer> lecturerModules = new HashMap<>();
@@ -313,36 +275,38 @@ public class AcademicLeader {
 
     // REPORT 4: STUDENT FEEDBACK
     public String getFeedbackReport() {
-        // Get my lecturers
-        Set<String> myLecturers = new HashSet<>();
+        // Get my lecturers, in assignment order, as bytes to compare with field 1
+        List<String> lecturerOrder = new ArrayList<>();
         for (String[] assignment : getMyAssignments()) {
-            myLecturers.add(assignment[1]);
+            if (!lecturerOrder.contains(assignment[1])) lecturerOrder.add(assignment[1]);
+        }
+        byte[][] lecturerKeys = new byte[lecturerOrder.size()][];
+        for (int i = 0; i < lecturerKeys.length; i++) {
+            lecturerKeys[i] = MappedRecordReader.encode(lecturerOrder.get(i));
         }
         
-        // Collect comments
-        Map<String, List<String>> lecturerComments = new HashMap<>();
-        List<String> comments = Helpers.readFromFile("comments.txt");
-        
-        for (String line : comments) {
-            if (line.trim().isEmpty()) continue;
-            
-            String[] parts = line.split("\\|");
-            if (parts.length >= 3 && myLecturers.contains(parts[1])) {
-                String lecID = parts[1];
-                String comment = parts[2];
-                
-                if (!lecturerComments.containsKey(lecID)) {
-                    lecturerComments.put(lecID, new ArrayList<>());
+        // Collect comments per lecturer. Format: studentID|lecturerID|comment
+        // Only field 2 of a matching line is decoded
+        List<List<String>> lecturerComments = new ArrayList<>();
+        for (int i = 0; i < lecturerKeys.length; i++) lecturerComments.add(new ArrayList<>());
+        
+        RecordStore.scanFields("comments.txt", record -> {
+            if (record.fieldCount() < 3) return true;
+            for (int i = 0; i < lecturerKeys.length; i++) {
+                if (record.fieldEquals(1, lecturerKeys[i])) {
+                    lecturerComments.get(i).add(record.field(2));
+                    break;
                 }
-                lecturerComments.get(lecID).add(comment);
             }
-        }
+            return true;
+        });
         
         // Build report
         StringBuilder report = new StringBuilder();
-        for (Map.Entry<String, List<String>> entry : lecturerComments.entrySet()) {
-            report.append(entry.getKey()).append(":\n");
-            for (String comment : entry.getValue()) {
+        for (int i = 0; i < lecturerOrder.size(); i++) {
+            if (lecturerComments.get(i).isEmpty()) continue;
+            report.append(lecturerOrder.get(i)).append(":\n");
+            for (String comment : lecturerComments.get(i)) {
                 report.append("  - ").append(comment).append("\n");
             }
             report.append("\n");
@@ -352,46 +316,32 @@ public class AcademicLeader {
     }
 
     // REPORT 5: AVERAGE MARKS
+    // Served from running per-module totals (MarkStatistics), so it is
+    // O(modules) and reflects marks entered since the last report
     public String getAverageMarksReport() {
-        // Get my modules
-        Set<String> myModuleIDs = new HashSet<>();
-        for (String[] module : getMyModules()) {
-            myModuleIDs.add(module[0]);
-        }
-        
-        // Calculate average per module
-        Map<String, Double> moduleTotals = new HashMap<>();
-        Map<String, Integer> moduleCounts = new HashMap<>();
-        
-        List<String> results = Helpers.readFromFile("results.txt");
-        for (String line : results) {
-            if (line.trim().isEmpty()) continue;
-            
-            String[] parts = line.split("\\|");
-            if (parts.length >= 4 && myModuleIDs.contains(parts[1])) {
-                String modID = parts[1];
-                try {
-                    double marks = Double.parseDouble(parts[3]);
-                    moduleTotals.put(modID, moduleTotals.getOrDefault(modID, 0.0) + marks);
-                    moduleCounts.put(modID, moduleCounts.getOrDefault(modID, 0) + 1);
-                } catch (NumberFormatException e) {
-                    continue;
-                }
-            }
-        }
+        MarkStatistics stats = MarkStatistics.get();
         
         // Build report
         StringBuilder report = new StringBuilder();
-        for (String modID : myModuleIDs) {
-            if (moduleCounts.containsKey(modID) && moduleCounts.get(modID) > 0) {
-                double avg = moduleTotals.get(modID) / moduleCounts.get(modID);
-                report.append(modID).append(": ").append(String.format("%.2f", avg)).append("\n");
+        for (String[] module : getMyModules()) {
+            MarkStatistics.Stats moduleStats = stats.getModuleStats(module[0]);
+            if (moduleStats.getCount() > 0) {
+                report.append(module[0]).append(": ").append(String.format("%.2f", moduleStats.getAverage())).append("\n");
             }
         }
         
         return report.toString();
     }
 
+    // COHORT QUERIES (Bitmap Index)
+    // A cohort expression over my modules, their classes and assessments,
+    // e.g. "MOD101 & MOD102" (see CohortIndex.query)
+    public List<String> queryCohort(String expression) {
+        Set<String> modules = new HashSet<>();
+        for (String[] module : getMyModules()) modules.add(module[0]);
+        return CohortIndex.get().query(expression, modules);
+    }
+
     // GETTERS
     public String getUserID() { return userID; }
     public String getName() { return name; }
@@ -7,10 +7,15 @@ import java.util.List;
 public class AcademicLeaderGUI extends JFrame {
     private AcademicLeader logic;
     private String leaderName;
+    // Builds reports and tables off the EDT; cancelled when leaving a screen
+    private AsyncLoader loader;
+    // Wait this long after the last change before rebuilding a live report
+    private static final int REPORT_REFRESH_DELAY_MS = 500;
 
     public AcademicLeaderGUI(String id, String name) {
         this.leaderName = name;
         this.logic = new AcademicLeader(id);
+        this.loader = new AsyncLoader(this);
         
         setTitle("AFS Academic Leader - " + name);
         setSize(800, 600);
@@ -24,6 +29,7 @@ public class AcademicLeaderGUI extends JFrame {
 
     // MAIN MENU / DASHBOARD
     private void showMainMenu() {
+        loader.cancelAll();
         getContentPane().removeAll();
         setLayout(new BorderLayout());
         
@@ -83,7 +89,7 @@ public class AcademicLeaderGUI extends JFrame {
                                    txtPhone.getText(), txtAge.getText())) {
                 JOptionPane.showMessageDialog(this, "Profile updated successfully!");
             } else {
-                JOptionPane.showMessageDialog(this, "Error: Invalid email!", 
+                JOptionPane.showMessageDialog(this, "Error: Invalid email, or already in use!", 
                     "Update Failed", JOptionPane.ERROR_MESSAGE);
             }
         }
@@ -91,6 +97,7 @@ public class AcademicLeaderGUI extends JFrame {
 
     // MANAGE MODULES
     private void showManageModules() {
+        loader.cancelAll();
         getContentPane().removeAll();
         setLayout(new BorderLayout());
         
@@ -104,10 +111,11 @@ public class AcademicLeaderGUI extends JFrame {
         DefaultTableModel model = new DefaultTableModel(columns, 0);
         
         // Load data
-        List<String[]> modules = logic.getMyModules();
-        for (String[] module : modules) {
-            model.addRow(new Object[]{module[0], module[1]});
-        }
+        loader.load("modules", "Loading modules...", logic::getMyModules, modules -> {
+            for (String[] module : modules) {
+                model.addRow(new Object[]{module[0], module[1]});
+            }
+        });
         
         JTable table = new JTable(model);
         JScrollPane scrollPane = new JScrollPane(table);
@@ -129,7 +137,7 @@ public class AcademicLeaderGUI extends JFrame {
                     showManageModules(); // Refresh
                 } else {
                     JOptionPane.showMessageDialog(this, 
-                        "Cannot create! Maximum 3 modules reached.", 
+                        "Cannot create! Maximum 3 modules reached, or the module could not be saved.", 
                         "Error", JOptionPane.ERROR_MESSAGE);
                 }
             }
@@ -190,6 +198,7 @@ public class AcademicLeaderGUI extends JFrame {
 
     // ASSIGN LECTURER
     private void showAssignLecturer() {
+        loader.cancelAll();
         getContentPane().removeAll();
         setLayout(new BorderLayout());
         
@@ -203,10 +212,11 @@ public class AcademicLeaderGUI extends JFrame {
         DefaultTableModel model = new DefaultTableModel(columns, 0);
         
         // Load data
-        List<String[]> assignments = logic.getMyAssignments();
-        for (String[] assignment : assignments) {
-            model.addRow(assignment);
-        }
+        loader.load("assignments", "Loading assignments...", logic::getMyAssignments, assignments -> {
+            for (String[] assignment : assignments) {
+                model.addRow(assignment);
+            }
+        });
         
         JTable table = new JTable(model);
         add(new JScrollPane(table), BorderLayout.CENTER);
@@ -237,11 +247,11 @@ public class AcademicLeaderGUI extends JFrame {
             if (selectedModule != null) {
                 String moduleID = selectedModule.split(" - ")[0];
                 
-                // Get all lecturers from users.txt
+                // Get all lecturers from users.txt (role index, field 1)
                 List<String> lecturers = new ArrayList<>();
-                for (String line : Helpers.readFromFile("users.txt")) {
-                    String[] parts = line.split("\\|");
-                    if (parts.length >= 4 && parts[1].equals("Lecturer")) {
+                for (String line : Helpers.findRecordsByField("users.txt", 1, "Lecturer")) {
+                    String[] parts = Fields.split(line);
+                    if (parts.length >= 4) {
                         lecturers.add(parts[0] + " - " + parts[3]); // LEC01 - Lecturer Name
                     }
                 }
@@ -287,7 +297,9 @@ public class AcademicLeaderGUI extends JFrame {
             "2. Pass/Fail Rate",
             "3. Lecturer Workload",
             "4. Student Feedback",
-            "5. Average Marks"
+            "5. Average Marks",
+            "6. Report Engine: Sequential vs Parallel",
+            "7. Cohort Query"
         };
         
         String choice = (String) JOptionPane.showInputDialog(this,
@@ -296,19 +308,97 @@ public class AcademicLeaderGUI extends JFrame {
         
         if (choice != null) {
             if (choice.startsWith("1")) {
-                showReport("Grade Distribution", logic.getGradeDistributionReport());
+                runReport("Grade Distribution", logic::getGradeDistributionReport);
             } else if (choice.startsWith("2")) {
                 showPassFailReport();
             } else if (choice.startsWith("3")) {
-                showReport("Lecturer Workload", logic.getLecturerWorkloadReport());
+                runReport("Lecturer Workload", logic::getLecturerWorkloadReport);
             } else if (choice.startsWith("4")) {
-                showReport("Student Feedback", logic.getFeedbackReport());
+                runReport("Student Feedback", logic::getFeedbackReport);
             } else if (choice.startsWith("5")) {
-                showReport("Average Marks", logic.getAverageMarksReport());
+                runReport("Average Marks", logic::getAverageMarksReport);
+            } else if (choice.startsWith("6")) {
+                showReportEngineSwitch();
+            } else if (choice.startsWith("7")) {
+                showCohortQuery();
             }
         }
     }
     
+    // Build a report in the background, then show it. Choosing another
+    // report (or leaving the screen) cancels one still being built.
+    private void runReport(String title, java.util.concurrent.Callable<String> report) {
+        loader.load("report", "Building " + title + " report...", report,
+            content -> showLiveReport(title, content, report));
+    }
+    
+    // Show a report in its own window that rebuilds itself when results,
+    // comments, assignments or users change (e.g. a lecturer enters marks).
+    // Changes in quick succession are coalesced into one rebuild.
+    private void showLiveReport(String title, String content, java.util.concurrent.Callable<String> report) {
+        JDialog dialog = new JDialog(this, title + " (live)", false);
+        JTextArea textArea = new JTextArea(content);
+        textArea.setEditable(false);
+        textArea.setFont(new Font("Monospaced", Font.PLAIN, 12));
+        JLabel status = new JLabel(" Up to date");
+        
+        boolean[] rebuilding = {false};
+        boolean[] stale = {false};
+        Timer rebuild = new Timer(REPORT_REFRESH_DELAY_MS, null);
+        rebuild.setRepeats(false);
+        rebuild.addActionListener(e -> {
+            if (rebuilding[0]) {
+                // Rebuild again once the current one finishes
+                stale[0] = true;
+                return;
+            }
+            rebuilding[0] = true;
+            status.setText(" Updating...");
+            new SwingWorker<String, Void>() {
+                @Override
+                protected String doInBackground() throws Exception {
+                    return report.call();
+                }
+                
+                @Override
+                protected void done() {
+                    rebuilding[0] = false;
+                    if (!dialog.isDisplayable()) return;
+                    try {
+                        textArea.setText(get());
+                        textArea.setCaretPosition(0);
+                        status.setText(" Updated " + java.time.LocalTime.now().withNano(0));
+                    } catch (Exception ex) {
+                        status.setText(" Update failed: " + ex.getMessage());
+                    }
+                    if (stale[0]) {
+                        stale[0] = false;
+                        rebuild.restart();
+                    }
+                }
+            }.execute();
+        });
+        
+        EventBus.Subscription subscription = EventBus.subscribeAsync(EventBus.RecordEvent.class,
+            SwingUtilities::invokeLater, event -> rebuild.restart());
+        dialog.setDefaultCloseOperation(JDialog.DISPOSE_ON_CLOSE);
+        dialog.addWindowListener(new java.awt.event.WindowAdapter() {
+            @Override
+            public void windowClosed(java.awt.event.WindowEvent e) {
+                subscription.close();
+                rebuild.stop();
+            }
+        });
+        
+        JScrollPane scrollPane = new JScrollPane(textArea);
+        scrollPane.setPreferredSize(new Dimension(500, 400));
+        dialog.add(scrollPane, BorderLayout.CENTER);
+        dialog.add(status, BorderLayout.SOUTH);
+        dialog.pack();
+        dialog.setLocationRelativeTo(this);
+        dialog.setVisible(true);
+    }
+    
     // Show a simple text report
     private void showReport(String title, String content) {
         JTextArea textArea = new JTextArea(content);
@@ -322,6 +412,48 @@ public class AcademicLeaderGUI extends JFrame {
             JOptionPane.INFORMATION_MESSAGE);
     }
     
+    // Compare both report engines, then let the user pick which one to use
+    private void showReportEngineSwitch() {
+        loader.load("report", "Timing both report engines...", logic::getReportEngineComparison,
+            this::showReportEngineSwitch);
+    }
+    
+    private void showReportEngineSwitch(String comparison) {
+        String[] modes = {"Parallel (fork/join)", "Sequential"};
+        String current = AcademicLeader.isParallelReports() ? modes[0] : modes[1];
+        
+        JTextArea textArea = new JTextArea(comparison);
+        textArea.setEditable(false);
+        textArea.setFont(new Font("Monospaced", Font.PLAIN, 12));
+        
+        String selected = (String) JOptionPane.showInputDialog(this,
+            new Object[]{textArea, "Use report engine:"}, "Report Engine",
+            JOptionPane.QUESTION_MESSAGE, null, modes, current);
+        
+        if (selected != null) {
+            AcademicLeader.setParallelReports(selected.equals(modes[0]));
+        }
+    }
+    
+    // Cohort query over the bitmap indexes, e.g. "MOD101 & MOD102"
+    private void showCohortQuery() {
+        String expression = JOptionPane.showInputDialog(this,
+            "Class, module or assessment IDs joined by & (both), | (either), - (but not):\n"
+            + "e.g. MOD101 & MOD102   or   CLS03 - AS05", "Cohort Query",
+            JOptionPane.QUESTION_MESSAGE);
+        if (expression == null || expression.trim().isEmpty()) return;
+        
+        loader.load("report", "Running cohort query...", () -> logic.queryCohort(expression), students -> {
+            if (students == null) {
+                JOptionPane.showMessageDialog(this, "Invalid query, unknown ID, or an ID outside your modules: " + expression,
+                    "Error", JOptionPane.ERROR_MESSAGE);
+                return;
+            }
+            showReport("Cohort: " + expression.trim(),
+                students.size() + " student(s)\n\n" + String.join("\n", students));
+        });
+    }
+    
     // Special handler for Pass/Fail report (needs module selection)
     private void showPassFailReport() {
         List<String[]> modules = logic.getMyModules();
@@ -341,13 +473,13 @@ public class AcademicLeaderGUI extends JFrame {
         
         if (selected != null) {
             String moduleID = selected.split(" - ")[0];
-            String report = logic.getPassFailReport(moduleID);
-            showReport("Pass/Fail Rate - " + selected, report);
+            runReport("Pass/Fail Rate - " + selected, () -> logic.getPassFailReport(moduleID));
         }
     }
 
     // LOGOUT
     private void logout() {
+        loader.cancelAll();
         new LoginGUI();
         this.dispose();
     }
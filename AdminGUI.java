@@ -15,10 +15,18 @@ import java.util.List;
 public class AdminGUI extends JFrame {
     private AdminStaff logic;
     private String adminName;
+    // Loads tables off the EDT; cancelled when leaving a screen
+    private AsyncLoader loader;
+    // Unsubscribes the open screen's change listeners
+    private Runnable closeScreen = () -> {};
+
+    // Larger change batches (e.g. bulk import) re-run the user query instead
+    private static final int MAX_ROW_UPDATES = 500;
 
     public AdminGUI(String id, String name) {
         this.adminName = name;
         this.logic = new AdminStaff(id);
+        this.loader = new AsyncLoader(this);
         setTitle("AFS Admin Dashboard - " + name);
         setSize(950, 680);
         setDefaultCloseOperation(EXIT_ON_CLOSE);
@@ -31,6 +39,9 @@ public class AdminGUI extends JFrame {
     // MAIN MENU
     // ==========================================
     private void showMainMenu() {
+        loader.cancelAll();
+        closeScreen.run();
+        closeScreen = () -> {};
         getContentPane().removeAll();
         setLayout(new BorderLayout());
 
@@ -80,30 +91,92 @@ public class AdminGUI extends JFrame {
 
         JLabel title = new JLabel("Manage Users", SwingConstants.CENTER);
         title.setFont(new Font("Arial", Font.BOLD, 20));
-        add(title, BorderLayout.NORTH);
-
-        String[] cols = {"User ID", "Role", "Name", "Gender", "Email", "Phone", "Age"};
-        DefaultTableModel model = new DefaultTableModel(cols, 0) {
-            public boolean isCellEditable(int r, int c) { return false; }
-        };
-        refreshUserTable(model);
 
+        // Lazy model: rows are fetched a page at a time as they scroll into view
+        UserTableModel model = new UserTableModel(logic);
         JTable table = new JTable(model);
         table.setSelectionMode(ListSelectionModel.SINGLE_SELECTION);
         add(new JScrollPane(table), BorderLayout.CENTER);
 
+        // Filter by role and name/email; sorting is done by the query, not the JTable
+        JComboBox<String> cmbRole = new JComboBox<>(
+            new String[]{"All Roles", "Student", "Lecturer", "Academic Leader", "Admin"});
+        JTextField txtSearch = new JTextField(18);
+        JButton btnSearch = new JButton("Search");
+        Runnable applyFilter = () -> {
+            String role = cmbRole.getSelectedIndex() == 0 ? null : (String) cmbRole.getSelectedItem();
+            model.setFilter(role, txtSearch.getText());
+            refreshUserTable(model);
+        };
+        cmbRole.addActionListener(e -> applyFilter.run());
+        txtSearch.addActionListener(e -> applyFilter.run());
+        btnSearch.addActionListener(e -> applyFilter.run());
+
+        table.getTableHeader().addMouseListener(new java.awt.event.MouseAdapter() {
+            public void mouseClicked(java.awt.event.MouseEvent e) {
+                int column = table.columnAtPoint(e.getPoint());
+                if (column < 0) return;
+                model.toggleSort(table.convertColumnIndexToModel(column));
+                // Show the sort arrow in the header
+                for (int i = 0; i < table.getColumnCount(); i++) {
+                    table.getColumnModel().getColumn(i).setHeaderValue(
+                        model.getColumnName(table.convertColumnIndexToModel(i)));
+                }
+                table.getTableHeader().repaint();
+                refreshUserTable(model);
+            }
+        });
+
+        JPanel filterPanel = new JPanel(new FlowLayout());
+        filterPanel.add(new JLabel("Role:"));          filterPanel.add(cmbRole);
+        filterPanel.add(new JLabel("Name or Email:")); filterPanel.add(txtSearch);
+        filterPanel.add(btnSearch);
+        filterPanel.add(userCountLabel = new JLabel());
+
+        JPanel north = new JPanel(new BorderLayout());
+        north.add(title, BorderLayout.NORTH);
+        north.add(filterPanel, BorderLayout.SOUTH);
+        add(north, BorderLayout.NORTH);
+
+        // Creates, edits and deletes (from here or elsewhere) update single rows.
+        // Subscribed before the first query, so no change can fall between the two
+        SwingChangeRelay relay = new SwingChangeRelay(changes -> {
+            if (changesDuringQuery != null) {
+                changesDuringQuery.addAll(changes);
+                return;
+            }
+            if (changes.size() > MAX_ROW_UPDATES) {
+                refreshUserTable(model);
+                return;
+            }
+            model.applyChanges(changes);
+            userCountLabel.setText(model.getRowCount() + " user(s)");
+        });
+        logic.addUserListener(relay);
+        closeScreen = () -> {
+            logic.removeUserListener(relay);
+            changesDuringQuery = null;
+        };
+        refreshUserTable(model);
+
         JPanel btnPanel = new JPanel(new FlowLayout());
         JButton btnCreate = new JButton("Create User");
+        JButton btnBulk   = new JButton("Bulk Import...");
         JButton btnEdit   = new JButton("Edit Selected");
         JButton btnDelete = new JButton("Delete Selected");
         JButton btnReset  = new JButton("Reset Password");
         JButton btnBack   = new JButton("Back");
 
         btnCreate.addActionListener(e -> { showCreateUserDialog(model); });
+        btnBulk.addActionListener(e -> showBulkImportDialog(model));
 
         btnEdit.addActionListener(e -> {
             int row = table.getSelectedRow();
             if (row == -1) { JOptionPane.showMessageDialog(this, "Please select a user."); return; }
+            if (model.getUser(row) == null) {
+                JOptionPane.showMessageDialog(this, "This user no longer exists.");
+                return;
+            }
             String[] d = { (String)model.getValueAt(row,0), (String)model.getValueAt(row,1),
                            (String)model.getValueAt(row,2), (String)model.getValueAt(row,3),
                            (String)model.getValueAt(row,4), (String)model.getValueAt(row,5),
@@ -114,7 +187,7 @@ public class AdminGUI extends JFrame {
         btnDelete.addActionListener(e -> {
             int row = table.getSelectedRow();
             if (row == -1) { JOptionPane.showMessageDialog(this, "Please select a user."); return; }
-            String targetID = (String) model.getValueAt(row, 0);
+            String targetID = model.getUserID(row);
             String targetName = (String) model.getValueAt(row, 2);
             int confirm = JOptionPane.showConfirmDialog(this,
                 "Delete user: " + targetName + " (" + targetID + ")?",
@@ -122,7 +195,6 @@ public class AdminGUI extends JFrame {
             if (confirm == JOptionPane.YES_OPTION) {
                 if (logic.deleteUser(targetID)) {
                     JOptionPane.showMessageDialog(this, "User deleted.");
-                    refreshUserTable(model);
                 } else {
                     JOptionPane.showMessageDialog(this, "Cannot delete your own account.",
                         "Error", JOptionPane.ERROR_MESSAGE);
@@ -133,7 +205,7 @@ public class AdminGUI extends JFrame {
         btnReset.addActionListener(e -> {
             int row = table.getSelectedRow();
             if (row == -1) { JOptionPane.showMessageDialog(this, "Please select a user."); return; }
-            String targetID = (String) model.getValueAt(row, 0);
+            String targetID = model.getUserID(row);
             JPasswordField newPwd = new JPasswordField();
             int opt = JOptionPane.showConfirmDialog(this,
                 new Object[]{"New Password for " + targetID + ":", newPwd},
@@ -151,20 +223,35 @@ public class AdminGUI extends JFrame {
 
         btnBack.addActionListener(e -> showMainMenu());
 
-        btnPanel.add(btnCreate); btnPanel.add(btnEdit);
+        btnPanel.add(btnCreate); btnPanel.add(btnBulk); btnPanel.add(btnEdit);
         btnPanel.add(btnDelete); btnPanel.add(btnReset); btnPanel.add(btnBack);
         add(btnPanel, BorderLayout.SOUTH);
         revalidate(); repaint();
     }
 
-    private void refreshUserTable(DefaultTableModel model) {
-        model.setRowCount(0);
-        for (String[] u : logic.getAllUsers()) {
-            model.addRow(new Object[]{u[0], u[1], u[3], u[4], u[5], u[6], u[7]});
-        }
+    private JLabel userCountLabel;
+    // Users changed while refreshUserTable's query runs (null when none is running)
+    private List<String[]> changesDuringQuery;
+
+    // Re-runs the table's filter and sort in the background
+    private void refreshUserTable(UserTableModel model) {
+        if (changesDuringQuery == null) changesDuringQuery = new ArrayList<>();
+        loader.load("users", "Loading users...", model::query, rows -> {
+            List<String[]> missed = changesDuringQuery;
+            changesDuringQuery = null;
+            if (missed != null && missed.size() > MAX_ROW_UPDATES) {
+                refreshUserTable(model);
+                return;
+            }
+            model.setRows(rows);
+            // The query may have read the file before some of these changes;
+            // replaying ones it already saw leaves the row as it is
+            if (missed != null) model.applyChanges(missed);
+            userCountLabel.setText(model.getRowCount() + " user(s)");
+        });
     }
 
-    private void showCreateUserDialog(DefaultTableModel model) {
+    private void showCreateUserDialog(UserTableModel model) {
         String[]  roles   = {"Student", "Lecturer", "Academic Leader"};
         String[]  genders = {"Male", "Female"};
         JComboBox<String> cmbRole   = new JComboBox<>(roles);
@@ -188,7 +275,6 @@ public class AdminGUI extends JFrame {
                 new String(txtPass.getPassword()));
             if (newID != null) {
                 JOptionPane.showMessageDialog(this, "User created! ID: " + newID);
-                refreshUserTable(model);
             } else {
                 JOptionPane.showMessageDialog(this,
                     "Failed. Ensure email is valid, unique, and no fields are empty.",
@@ -197,7 +283,25 @@ public class AdminGUI extends JFrame {
         }
     }
 
-    private void showEditUserDialog(String[] d, DefaultTableModel model) {
+    // Roster CSV: role,name,gender,email,phone,age,password
+    private void showBulkImportDialog(UserTableModel model) {
+        JFileChooser chooser = new JFileChooser();
+        chooser.setDialogTitle("Bulk Import Users (CSV: role,name,gender,email,phone,age,password)");
+        if (chooser.showOpenDialog(this) != JFileChooser.APPROVE_OPTION) return;
+
+        // Reading and validating a large roster takes a while; the new users
+        // reach the table through its change relay. Leaving the screen only
+        // drops the report: the loader never interrupts the import itself.
+        String path = chooser.getSelectedFile().getPath();
+        loader.load("bulkImport", "Importing users...", () -> logic.bulkCreateUsers(path), result -> {
+            JTextArea area = new JTextArea(result.toString(), 15, 50);
+            area.setEditable(false);
+            JOptionPane.showMessageDialog(this, new JScrollPane(area), "Bulk Import Result",
+                JOptionPane.INFORMATION_MESSAGE);
+        });
+    }
+
+    private void showEditUserDialog(String[] d, UserTableModel model) {
         String[] genders = {"Male", "Female"};
         JTextField txtName  = new JTextField(d[2]);
         JTextField txtEmail = new JTextField(d[4]);
@@ -216,9 +320,8 @@ public class AdminGUI extends JFrame {
                     (String)cmbGender.getSelectedItem(), txtEmail.getText().trim(),
                     txtPhone.getText().trim(), txtAge.getText().trim())) {
                 JOptionPane.showMessageDialog(this, "User updated.");
-                refreshUserTable(model);
             } else {
-                JOptionPane.showMessageDialog(this, "Update failed. Check email is valid.",
+                JOptionPane.showMessageDialog(this, "Update failed. Check the email is valid and not used by another user.",
                     "Error", JOptionPane.ERROR_MESSAGE);
             }
         }
@@ -239,7 +342,7 @@ public class AdminGUI extends JFrame {
         DefaultTableModel model = new DefaultTableModel(cols, 0) {
             public boolean isCellEditable(int r, int c) { return false; }
         };
-        for (String[] row : logic.getAllLeaderAssignments()) model.addRow(row);
+        refreshLeaderAssignments(model);
 
         JTable table = new JTable(model);
         add(new JScrollPane(table), BorderLayout.CENTER);
@@ -248,45 +351,9 @@ public class AdminGUI extends JFrame {
         JButton btnAssign = new JButton("Assign");
         JButton btnBack   = new JButton("Back");
 
-        btnAssign.addActionListener(e -> {
-            // Build dropdowns from users.txt
-            List<String> leaders   = new ArrayList<>();
-            List<String> lecturers = new ArrayList<>();
-            for (String[] u : logic.getAllUsers()) {
-                if (u[1].equals("Academic Leader")) leaders.add(u[0] + " - " + u[3]);
-                if (u[1].equals("Lecturer"))        lecturers.add(u[0] + " - " + u[3]);
-            }
-            if (leaders.isEmpty()) {
-                JOptionPane.showMessageDialog(this, "No Academic Leaders found. Create one first.");
-                return;
-            }
-            if (lecturers.isEmpty()) {
-                JOptionPane.showMessageDialog(this, "No Lecturers found. Create one first.");
-                return;
-            }
-
-            JComboBox<String> cmbLeader   = new JComboBox<>(leaders.toArray(new String[0]));
-            JComboBox<String> cmbLecturer = new JComboBox<>(lecturers.toArray(new String[0]));
-
-            int opt = JOptionPane.showConfirmDialog(this,
-                new Object[]{"Academic Leader:", cmbLeader, "Lecturer:", cmbLecturer},
-                "Assign Lecturer to Leader", JOptionPane.OK_CANCEL_OPTION);
-
-            if (opt == JOptionPane.OK_OPTION) {
-                String leaderID   = ((String)cmbLeader.getSelectedItem()).split(" - ")[0];
-                String lecturerID = ((String)cmbLecturer.getSelectedItem()).split(" - ")[0];
-
-                if (logic.assignLecturerToLeader(leaderID, lecturerID)) {
-                    JOptionPane.showMessageDialog(this, "Lecturer assigned to Academic Leader!");
-                    model.setRowCount(0);
-                    for (String[] row : logic.getAllLeaderAssignments()) model.addRow(row);
-                } else {
-                    JOptionPane.showMessageDialog(this,
-                        "Assignment failed. This pairing may already exist or IDs are invalid.",
-                        "Error", JOptionPane.ERROR_MESSAGE);
-                }
-            }
-        });
+        // Build dropdowns from users.txt, then ask
+        btnAssign.addActionListener(e -> loader.load("assignChoices", "Loading users...",
+            logic::getAllUsers, users -> showAssignLeaderDialog(users, model)));
 
         btnBack.addActionListener(e -> showMainMenu());
         btnPanel.add(btnAssign); btnPanel.add(btnBack);
@@ -294,6 +361,51 @@ public class AdminGUI extends JFrame {
         revalidate(); repaint();
     }
 
+    private void refreshLeaderAssignments(DefaultTableModel model) {
+        loader.load("leaderAssignments", "Loading assignments...", logic::getAllLeaderAssignments, rows -> {
+            model.setRowCount(0);
+            for (String[] row : rows) model.addRow(row);
+        });
+    }
+
+    private void showAssignLeaderDialog(List<String[]> users, DefaultTableModel model) {
+        List<String> leaders   = new ArrayList<>();
+        List<String> lecturers = new ArrayList<>();
+        for (String[] u : users) {
+            if (u[1].equals("Academic Leader")) leaders.add(u[0] + " - " + u[3]);
+            if (u[1].equals("Lecturer"))        lecturers.add(u[0] + " - " + u[3]);
+        }
+        if (leaders.isEmpty()) {
+            JOptionPane.showMessageDialog(this, "No Academic Leaders found. Create one first.");
+            return;
+        }
+        if (lecturers.isEmpty()) {
+            JOptionPane.showMessageDialog(this, "No Lecturers found. Create one first.");
+            return;
+        }
+
+        JComboBox<String> cmbLeader   = new JComboBox<>(leaders.toArray(new String[0]));
+        JComboBox<String> cmbLecturer = new JComboBox<>(lecturers.toArray(new String[0]));
+
+        int opt = JOptionPane.showConfirmDialog(this,
+            new Object[]{"Academic Leader:", cmbLeader, "Lecturer:", cmbLecturer},
+            "Assign Lecturer to Leader", JOptionPane.OK_CANCEL_OPTION);
+
+        if (opt == JOptionPane.OK_OPTION) {
+            String leaderID   = ((String)cmbLeader.getSelectedItem()).split(" - ")[0];
+            String lecturerID = ((String)cmbLecturer.getSelectedItem()).split(" - ")[0];
+
+            if (logic.assignLecturerToLeader(leaderID, lecturerID)) {
+                JOptionPane.showMessageDialog(this, "Lecturer assigned to Academic Leader!");
+                refreshLeaderAssignments(model);
+            } else {
+                JOptionPane.showMessageDialog(this,
+                    "Assignment failed. This pairing may already exist or IDs are invalid.",
+                    "Error", JOptionPane.ERROR_MESSAGE);
+            }
+        }
+    }
+
     // ==========================================
     // GRADING SYSTEM
     // ==========================================
@@ -307,7 +419,9 @@ public class AdminGUI extends JFrame {
 
         String[] cols = {"Grade", "Min Mark", "Max Mark"};
         DefaultTableModel model = new DefaultTableModel(cols, 0);
-        for (String[] g : logic.getGradingSystem()) model.addRow(new Object[]{g[0], g[1], g[2]});
+        loader.load("grading", "Loading grading system...", logic::getGradingSystem, grades -> {
+            for (String[] g : grades) model.addRow(new Object[]{g[0], g[1], g[2]});
+        });
 
         JTable table = new JTable(model);
         add(new JScrollPane(table), BorderLayout.CENTER);
@@ -368,7 +482,14 @@ public class AdminGUI extends JFrame {
         DefaultTableModel model = new DefaultTableModel(cols, 0) {
             public boolean isCellEditable(int r, int c) { return false; }
         };
-        for (String[] cls : logic.getAllClasses()) model.addRow(new Object[]{cls[0], cls[1], cls[2]});
+        refreshClassTable(model);
+
+        // Created / deleted classes update single rows
+        SwingChangeRelay relay = new SwingChangeRelay(changes -> {
+            for (String[] change : changes) applyClassChange(model, change[0], change[1]);
+        });
+        logic.addClassListener(relay);
+        closeScreen = () -> logic.removeClassListener(relay);
 
         JTable table = new JTable(model);
         add(new JScrollPane(table), BorderLayout.CENTER);
@@ -378,37 +499,8 @@ public class AdminGUI extends JFrame {
         JButton btnDelete = new JButton("Delete Selected");
         JButton btnBack   = new JButton("Back");
 
-        btnCreate.addActionListener(e -> {
-            List<String[]> modules = logic.getAllModules();
-            if (modules.isEmpty()) {
-                JOptionPane.showMessageDialog(this,
-                    "No modules exist yet. An Academic Leader must create modules first.");
-                return;
-            }
-            String[] modOptions = new String[modules.size()];
-            for (int i = 0; i < modules.size(); i++)
-                modOptions[i] = modules.get(i)[0] + " - " + modules.get(i)[1];
-
-            JTextField txtName = new JTextField();
-            JComboBox<String> cmbModule = new JComboBox<>(modOptions);
-
-            int opt = JOptionPane.showConfirmDialog(this,
-                new Object[]{"Class Name:", txtName, "Module:", cmbModule},
-                "Create Class", JOptionPane.OK_CANCEL_OPTION);
-
-            if (opt == JOptionPane.OK_OPTION) {
-                String moduleID = ((String)cmbModule.getSelectedItem()).split(" - ")[0];
-                String classID  = logic.createClass(txtName.getText().trim(), moduleID);
-                if (classID != null) {
-                    JOptionPane.showMessageDialog(this, "Class created! ID: " + classID);
-                    model.setRowCount(0);
-                    for (String[] cls : logic.getAllClasses()) model.addRow(new Object[]{cls[0],cls[1],cls[2]});
-                } else {
-                    JOptionPane.showMessageDialog(this,
-                        "Failed. Class name cannot be empty.", "Error", JOptionPane.ERROR_MESSAGE);
-                }
-            }
-        });
+        btnCreate.addActionListener(e -> loader.load("classModules", "Loading modules...",
+            logic::getAllModules, modules -> showCreateClassDialog(modules, model)));
 
         btnDelete.addActionListener(e -> {
             int row = table.getSelectedRow();
@@ -418,7 +510,6 @@ public class AdminGUI extends JFrame {
                 "Delete class " + classID + "?", "Confirm", JOptionPane.YES_NO_OPTION);
             if (confirm == JOptionPane.YES_OPTION) {
                 logic.deleteClass(classID);
-                model.removeRow(row);
             }
         });
 
@@ -428,6 +519,62 @@ public class AdminGUI extends JFrame {
         revalidate(); repaint();
     }
 
+    private void showCreateClassDialog(List<String[]> modules, DefaultTableModel model) {
+        if (modules.isEmpty()) {
+            JOptionPane.showMessageDialog(this,
+                "No modules exist yet. An Academic Leader must create modules first.");
+            return;
+        }
+        String[] modOptions = new String[modules.size()];
+        for (int i = 0; i < modules.size(); i++)
+            modOptions[i] = modules.get(i)[0] + " - " + modules.get(i)[1];
+
+        JTextField txtName = new JTextField();
+        JComboBox<String> cmbModule = new JComboBox<>(modOptions);
+
+        int opt = JOptionPane.showConfirmDialog(this,
+            new Object[]{"Class Name:", txtName, "Module:", cmbModule},
+            "Create Class", JOptionPane.OK_CANCEL_OPTION);
+
+        if (opt == JOptionPane.OK_OPTION) {
+            String moduleID = ((String)cmbModule.getSelectedItem()).split(" - ")[0];
+            String classID  = logic.createClass(txtName.getText().trim(), moduleID);
+            if (classID != null) {
+                JOptionPane.showMessageDialog(this, "Class created! ID: " + classID);
+            } else {
+                JOptionPane.showMessageDialog(this,
+                    "Failed. Class name cannot be empty.", "Error", JOptionPane.ERROR_MESSAGE);
+            }
+        }
+    }
+
+    private void refreshClassTable(DefaultTableModel model) {
+        loader.load("classes", "Loading classes...", logic::getAllClasses, classes -> {
+            model.setRowCount(0);
+            for (String[] cls : classes) model.addRow(new Object[]{cls[0], cls[1], cls[2]});
+        });
+    }
+
+    // One classes.txt change: null oldLine = inserted, null newLine = deleted
+    private static void applyClassChange(DefaultTableModel model, String oldLine, String newLine) {
+        // Format: classID|className|moduleID
+        String classID = Fields.get(newLine != null ? newLine : oldLine, 0);
+        int row = -1;
+        for (int i = 0; i < model.getRowCount(); i++) {
+            if (model.getValueAt(i, 0).equals(classID)) { row = i; break; }
+        }
+        if (newLine == null) {
+            if (row >= 0) model.removeRow(row);
+            return;
+        }
+        Object[] values = {classID, Fields.get(newLine, 1), Fields.get(newLine, 2)};
+        if (row < 0) {
+            model.addRow(values);
+        } else {
+            for (int c = 0; c < values.length; c++) model.setValueAt(values[c], row, c);
+        }
+    }
+
     // ==========================================
     // VIEW ALL MODULES
     // ==========================================
@@ -443,9 +590,10 @@ public class AdminGUI extends JFrame {
         DefaultTableModel model = new DefaultTableModel(cols, 0) {
             public boolean isCellEditable(int r, int c) { return false; }
         };
-        List<String[]> modules = logic.getAllModules();
-        if (modules.isEmpty()) model.addRow(new Object[]{"No modules found", "", ""});
-        else for (String[] m : modules) model.addRow(new Object[]{m[0], m[1], m[2]});
+        loader.load("modules", "Loading modules...", logic::getAllModules, modules -> {
+            if (modules.isEmpty()) model.addRow(new Object[]{"No modules found", "", ""});
+            else for (String[] m : modules) model.addRow(new Object[]{m[0], m[1], m[2]});
+        });
 
         add(new JScrollPane(new JTable(model)), BorderLayout.CENTER);
 
@@ -475,7 +623,7 @@ public class AdminGUI extends JFrame {
                 JOptionPane.showMessageDialog(this, "Profile updated!");
             } else {
                 JOptionPane.showMessageDialog(this,
-                    "Update failed. Check email is valid.", "Error", JOptionPane.ERROR_MESSAGE);
+                    "Update failed. Check the email is valid and not used by another user.", "Error", JOptionPane.ERROR_MESSAGE);
             }
         }
     }
@@ -484,6 +632,8 @@ public class AdminGUI extends JFrame {
     // LOGOUT
     // ==========================================
     private void logout() {
+        loader.cancelAll();
+        closeScreen.run();
         new LoginGUI().setVisible(true);
         this.dispose();
     }
@@ -19,13 +19,12 @@ public class AdminStaff {
     }
 
     private void loadProfile() {
-        for (String line : Helpers.readFromFile("users.txt")) {
-            String[] p = line.split("\\|");
-            if (p.length >= 8 && p[0].equals(this.userID)) {
-                this.password = p[2]; this.name = p[3]; this.gender = p[4];
-                this.email = p[5];   this.phone = p[6]; this.age = p[7];
-                break;
-            }
+        String line = Helpers.findRecord("users.txt", this.userID);
+        if (line == null) return;
+        String[] p = Fields.split(line);
+        if (p.length >= 8) {
+            this.password = p[2]; this.name = p[3]; this.gender = p[4];
+            this.email = p[5];   this.phone = p[6]; this.age = p[7];
         }
     }
 
@@ -38,49 +37,167 @@ public class AdminStaff {
         if (name == null || name.trim().isEmpty()) return null;
         if (password == null || password.trim().isEmpty()) return null;
 
-        // ADD THIS: Check for duplicate email
-        List<String[]> existingUsers = getAllUsers();
-        for (String[] user : existingUsers) {
-            if (user[5].equals(email)) { // user[5] is email
-                return null; // Email already exists
+        if (Helpers.emailTaken(email, null)) return null; // Email already exists
+
+        String prefix = prefixForRole(role);
+        if (prefix == null) return null; // Student, Lecturer or Academic Leader only
+        String newID = Helpers.generateUniqueID(prefix, "users.txt");
+        // Email checked again as part of the write, in case another request just took it
+        boolean saved = Helpers.writeToFileUnless("users.txt", 5, email, line -> Fields.count(line) >= 8,
+            newID + "|" + role + "|" + password + "|" + name
+            + "|" + gender + "|" + email + "|" + phone + "|" + age);
+        return saved ? newID : null;
+    }
+
+    // ==========================================
+    // 1b. BULK USER ONBOARDING
+    // File: roster CSV  format: role,name,gender,email,phone,age,password
+    // ==========================================
+    public static class BulkCreateResult {
+        public int rowsRead;
+        public int created;
+        public int duplicateEmails;
+        public int rejected;
+        public long elapsedMillis;
+        public final Map<String, Integer> createdByRole = new LinkedHashMap<>();
+        public final List<String> errors = new ArrayList<>();
+
+        // Keep the report bounded for very bad rosters
+        private void note(String problem) {
+            if (errors.size() < 1000) errors.add(problem);
+        }
+
+        @Override
+        public String toString() {
+            StringBuilder sb = new StringBuilder();
+            sb.append("Rows read: ").append(rowsRead).append("\n");
+            sb.append("Created: ").append(created);
+            for (Map.Entry<String, Integer> e : createdByRole.entrySet()) {
+                sb.append("  (").append(e.getKey()).append(": ").append(e.getValue()).append(")");
+            }
+            sb.append("\n");
+            sb.append("Duplicate emails skipped: ").append(duplicateEmails).append("\n");
+            sb.append("Rejected: ").append(rejected).append("\n");
+            sb.append("Time: ").append(elapsedMillis).append(" ms\n");
+            if (!errors.isEmpty()) {
+                sb.append("\nProblems:\n");
+                for (String e : errors) sb.append("  ").append(e).append("\n");
+            }
+            return sb.toString();
+        }
+    }
+
+    /**
+     * Creates every valid user in a roster file. Emails are checked against
+     * existing users and the rest of the roster, IDs are allocated in one
+     * block per prefix, and all records are appended with a single write.
+     */
+    public BulkCreateResult bulkCreateUsers(String rosterFile) throws java.io.IOException {
+        BulkCreateResult result = new BulkCreateResult();
+        long start = System.nanoTime();
+
+        Set<String> seenEmails = new HashSet<>();
+        List<String[]> accepted = new ArrayList<>();
+        Map<String, Integer> countByPrefix = new LinkedHashMap<>();
+
+        try (java.io.BufferedReader reader = new java.io.BufferedReader(new java.io.FileReader(rosterFile))) {
+            String line;
+            int lineNo = 0;
+            while ((line = reader.readLine()) != null) {
+                lineNo++;
+                if (line.trim().isEmpty()) continue;
+                List<String> cols = Helpers.parseCsvLine(line);
+                if (lineNo == 1 && cols != null && !cols.isEmpty() && cols.get(0).trim().equalsIgnoreCase("role")) continue;
+                result.rowsRead++;
+
+                if (cols == null || cols.size() < 7) {
+                    result.rejected++;
+                    result.note("Line " + lineNo + ": expected role,name,gender,email,phone,age,password");
+                    continue;
+                }
+                String[] u = new String[7];
+                for (int i = 0; i < 7; i++) u[i] = cols.get(i).trim();
+                String role = u[0], name = u[1], email = u[3], password = u[6];
+
+                String prefix = prefixForRole(role);
+                String problem = null;
+                if (prefix == null) problem = "unknown role '" + role + "'";
+                else if (name.isEmpty() || password.isEmpty()) problem = "name and password are required";
+                else if (!Helpers.validateEmail(email)) problem = "invalid email '" + email + "'";
+                else if (String.join("", u).contains("|")) problem = "fields cannot contain '|'";
+                if (problem != null) {
+                    result.rejected++;
+                    result.note("Line " + lineNo + ": " + problem);
+                    continue;
+                }
+
+                if (!seenEmails.add(email) || !Helpers.findRecordsByField("users.txt", 5, email).isEmpty()) {
+                    result.duplicateEmails++;
+                    result.note("Line " + lineNo + ": email " + email + " already exists");
+                    continue;
+                }
+                accepted.add(u);
+                countByPrefix.merge(prefix, 1, Integer::sum);
             }
         }
 
-        String prefix;
+        // One ID block per prefix, handed out in roster order
+        Map<String, Iterator<String>> idBlocks = new HashMap<>();
+        for (Map.Entry<String, Integer> e : countByPrefix.entrySet()) {
+            idBlocks.put(e.getKey(), SequenceAllocator.nextBlock(e.getKey(), "users.txt", e.getValue()).iterator());
+        }
+
+        List<String> records = new ArrayList<>(accepted.size());
+        for (String[] u : accepted) {
+            String newID = idBlocks.get(prefixForRole(u[0])).next();
+            // Format: userID|role|password|name|gender|email|phone|age
+            records.add(newID + "|" + u[0] + "|" + u[6] + "|" + u[1]
+                + "|" + u[2] + "|" + u[3] + "|" + u[4] + "|" + u[5]);
+            result.createdByRole.merge(u[0], 1, Integer::sum);
+        }
+        if (!Helpers.writeAllToFile("users.txt", records)) {
+            result.rejected += records.size();
+            result.createdByRole.clear();
+            result.note("Could not write users.txt; no users were created");
+            records.clear();
+        }
+
+        result.created = records.size();
+        result.elapsedMillis = (System.nanoTime() - start) / 1_000_000;
+        return result;
+    }
+
+    private static String prefixForRole(String role) {
         switch (role) {
-            case "Lecturer":        prefix = "LEC"; break;
-            case "Academic Leader": prefix = "AL";  break;
-            default:                prefix = "STU"; break;
+            case "Student":         return "STU";
+            case "Lecturer":        return "LEC";
+            case "Academic Leader": return "AL";
+            default:                return null;
         }
-        String newID = Helpers.generateUniqueID(prefix, "users.txt");
-        Helpers.writeToFile("users.txt",
-            newID + "|" + role + "|" + password + "|" + name
-            + "|" + gender + "|" + email + "|" + phone + "|" + age);
-        return newID;
     }
 
     public List<String[]> getAllUsers() {
         List<String[]> users = new ArrayList<>();
-        for (String line : Helpers.readFromFile("users.txt")) {
-            if (line.trim().isEmpty()) continue;
-            String[] p = line.split("\\|");
+        Helpers.forEachRecord("users.txt", line -> {
+            if (line.trim().isEmpty()) return true;
+            String[] p = Fields.split(line);
             if (p.length >= 8) users.add(p);
-        }
+            return true;
+        });
         return users;
     }
 
     public boolean updateUser(String targetID, String newName, String newGender,
                                String newEmail, String newPhone, String newAge) {
         if (!Helpers.validateEmail(newEmail) || newName == null || newName.trim().isEmpty()) return false;
-        for (String line : Helpers.readFromFile("users.txt")) {
-            String[] p = line.split("\\|");
-            if (p.length >= 8 && p[0].equals(targetID)) {
-                return Helpers.updateRecord("users.txt", targetID,
-                    p[0] + "|" + p[1] + "|" + p[2] + "|" + newName
-                    + "|" + newGender + "|" + newEmail + "|" + newPhone + "|" + newAge);
-            }
-        }
-        return false;
+        if (Helpers.emailTaken(newEmail, targetID)) return false;
+        String line = Helpers.findRecord("users.txt", targetID);
+        if (line == null) return false;
+        String[] p = Fields.split(line);
+        if (p.length < 8) return false;
+        return Helpers.updateRecord("users.txt", targetID,
+            p[0] + "|" + p[1] + "|" + p[2] + "|" + newName
+            + "|" + newGender + "|" + newEmail + "|" + newPhone + "|" + newAge);
     }
 
     public boolean deleteUser(String targetID) {
@@ -90,14 +207,132 @@ public class AdminStaff {
 
     public boolean resetPassword(String targetID, String newPassword) {
         if (newPassword == null || newPassword.trim().isEmpty()) return false;
-        for (String line : Helpers.readFromFile("users.txt")) {
-            String[] p = line.split("\\|");
-            if (p.length >= 8 && p[0].equals(targetID)) {
-                p[2] = newPassword;
-                return Helpers.updateRecord("users.txt", targetID, String.join("|", p));
-            }
+        String line = Helpers.findRecord("users.txt", targetID);
+        if (line == null) return false;
+        String[] p = Fields.split(line);
+        if (p.length < 8) return false;
+        p[2] = newPassword;
+        return Helpers.updateRecord("users.txt", targetID, String.join("|", p));
+    }
+
+    // ==========================================
+    // 1c. USER PAGES (Backend for the Lazy User Table)
+    // The table keeps only the matching users' ID codes (IdDictionary) and
+    // fetches the few rows on screen by ID; see UserTableModel
+    // ==========================================
+    /**
+     * Filters and sorts users.txt without building a row per user
+     *
+     * @param role Exact role to keep, or null for all roles
+     * @param search Case-insensitive text to find in the name or email, or "" for all
+     * @param sortField users.txt field to sort on (age sorts numerically), or -1 for file order
+     * @return ID codes of the matching users, in display order
+     */
+    public int[] queryUsers(String role, String search, int sortField, boolean ascending) {
+        String needle = normalizeSearch(search);
+        // {sort key, userID} per matching user
+        List<String[]> keys = new ArrayList<>();
+        int[][] codes = {new int[256]};
+        int[] count = {0};
+
+        java.util.function.Predicate<String> visit = line -> {
+            if (!userMatches(line, role, needle)) return true;
+
+            if (count[0] == codes[0].length) codes[0] = Arrays.copyOf(codes[0], count[0] * 2);
+            codes[0][count[0]++] = RecordStore.fieldCode(line, 0, true);
+            if (sortField >= 0) keys.add(new String[]{Fields.get(line, sortField), Fields.get(line, 0)});
+            return true;
+        };
+        // The role index narrows the scan to one role's users
+        if (role != null) {
+            for (String line : Helpers.findRecordsByField("users.txt", 1, role)) visit.test(line);
+        } else {
+            Helpers.forEachRecord("users.txt", visit);
         }
-        return false;
+
+        int n = count[0];
+        if (sortField < 0) return Arrays.copyOf(codes[0], n);
+
+        // Sort positions by key, then user ID
+        Comparator<String[]> byKey = userSortOrder(sortField, ascending);
+        Integer[] order = new Integer[n];
+        for (int i = 0; i < n; i++) order[i] = i;
+        Arrays.sort(order, (a, b) -> byKey.compare(keys.get(a), keys.get(b)));
+
+        int[] sorted = new int[n];
+        for (int i = 0; i < n; i++) sorted[i] = codes[0][order[i]];
+        return sorted;
+    }
+
+    /**
+     * Whether a users.txt line passes a queryUsers filter
+     *
+     * @param needle Search text already passed through normalizeSearch()
+     */
+    public static boolean userMatches(String line, String role, String needle) {
+        if (line.trim().isEmpty() || Fields.count(line) < 8) return false;
+        if (role != null && !Fields.equals(line, 1, role)) return false;
+        return needle.isEmpty()
+            || Fields.get(line, 3).toLowerCase().contains(needle)
+            || Fields.get(line, 5).toLowerCase().contains(needle);
+    }
+
+    public static String normalizeSearch(String search) {
+        return search == null ? "" : search.trim().toLowerCase();
+    }
+
+    /**
+     * Row order used by queryUsers, over {sort key, userID} pairs: the key
+     * (age numerically, the rest case-insensitively), then the user ID
+     * ascending, so every user has one exact position
+     */
+    public static Comparator<String[]> userSortOrder(int field, boolean ascending) {
+        Comparator<String> byKey = field == 7
+            ? Comparator.comparingDouble(k -> k == null ? Double.MAX_VALUE : Fields.parseDouble(k, 0, Double.MAX_VALUE))
+            : Comparator.nullsFirst(String.CASE_INSENSITIVE_ORDER);
+        if (!ascending) byKey = byKey.reversed();
+        Comparator<String> keyOrder = byKey;
+        return (a, b) -> {
+            int c = keyOrder.compare(a[0], b[0]);
+            return c != 0 ? c : a[1].compareTo(b[1]);
+        };
+    }
+
+    /**
+     * Fetches users by ID code (one page of the user table)
+     *
+     * @return One entry per code, in the same order; null where the user
+     *         has been deleted since the codes were queried
+     */
+    public List<String[]> getUsersByCode(int[] codes, int from, int to) {
+        List<String[]> users = new ArrayList<>(to - from);
+        for (int i = from; i < to; i++) {
+            String line = Helpers.findRecord("users.txt", IdDictionary.id(codes[i]));
+            String[] p = line == null ? null : Fields.split(line);
+            users.add(p != null && p.length >= 8 ? p : null);
+        }
+        return users;
+    }
+
+    // ==========================================
+    // 1d. CHANGE EVENTS
+    // Each user or class record inserted, updated or deleted (by this or
+    // any other session) is reported to the listener, see RecordStore
+    // ==========================================
+    public void addUserListener(RecordStore.ChangeListener listener) {
+        RecordStore.of("users.txt").addListener(listener);
+    }
+
+    public void removeUserListener(RecordStore.ChangeListener listener) {
+        RecordStore.of("users.txt").removeListener(listener);
+    }
+
+    public void addClassListener(RecordStore.ChangeListener listener) {
+        RecordStore.of("classes.txt").addListener(listener);
+    }
+
+    public void removeClassListener(RecordStore.ChangeListener listener) {
+        RecordStore.of("classes.txt").removeListener(listener);
     }
 
     // ==========================================
@@ -106,32 +341,28 @@ public class AdminStaff {
     // ==========================================
     public boolean assignLecturerToLeader(String leaderID, String lecturerID) {
         if (leaderID == null || lecturerID == null) return false;
-        boolean leaderOk = false, lecturerOk = false;
-        for (String line : Helpers.readFromFile("users.txt")) {
-            String[] p = line.split("\\|");
-            if (p.length >= 2) {
-                if (p[0].equals(leaderID)   && p[1].equals("Academic Leader")) leaderOk = true;
-                if (p[0].equals(lecturerID) && p[1].equals("Lecturer"))        lecturerOk = true;
-            }
-        }
-        if (!leaderOk || !lecturerOk) return false;
+        if (!hasRole(leaderID, "Academic Leader") || !hasRole(lecturerID, "Lecturer")) return false;
 
-        // Prevent duplicates
-        for (String line : Helpers.readFromFile("leaderAssignments.txt")) {
-            String[] p = line.split("\\|");
-            if (p.length >= 2 && p[0].equals(leaderID) && p[1].equals(lecturerID)) return false;
+        // Prevent duplicates (leaderID index), checked as part of the write
+        return Helpers.writeToFileUnless("leaderAssignments.txt", 0, leaderID,
+            line -> Fields.equals(line, 1, lecturerID), leaderID + "|" + lecturerID);
+    }
+
+    private boolean hasRole(String targetID, String role) {
+        for (String line : RecordStore.of("users.txt").find(targetID)) {
+            if (Fields.equals(line, 1, role)) return true;
         }
-        Helpers.writeToFile("leaderAssignments.txt", leaderID + "|" + lecturerID);
-        return true;
+        return false;
     }
 
     public List<String[]> getAllLeaderAssignments() {
         List<String[]> result = new ArrayList<>();
-        for (String line : Helpers.readFromFile("leaderAssignments.txt")) {
-            if (line.trim().isEmpty()) continue;
-            String[] p = line.split("\\|");
+        Helpers.forEachRecord("leaderAssignments.txt", line -> {
+            if (line.trim().isEmpty()) return true;
+            String[] p = Fields.split(line);
             if (p.length >= 2) result.add(p);
-        }
+            return true;
+        });
         return result;
     }
 
@@ -144,25 +375,21 @@ public class AdminStaff {
         if (moduleID  == null || moduleID.trim().isEmpty())  return null;
 
         // Verify module exists
-        boolean moduleExists = false;
-        for (String line : Helpers.readFromFile("modules.txt")) {
-            String[] p = line.split("\\|");
-            if (p.length >= 1 && p[0].equals(moduleID)) { moduleExists = true; break; }
-        }
-        if (!moduleExists) return null;
+        if (Helpers.findRecord("modules.txt", moduleID) == null) return null;
 
         String classID = Helpers.generateUniqueID("CLS", "classes.txt");
-        Helpers.writeToFile("classes.txt", classID + "|" + className + "|" + moduleID);
+        if (!Helpers.writeToFile("classes.txt", classID + "|" + className + "|" + moduleID)) return null;
         return classID;
     }
 
     public List<String[]> getAllClasses() {
         List<String[]> result = new ArrayList<>();
-        for (String line : Helpers.readFromFile("classes.txt")) {
-            if (line.trim().isEmpty()) continue;
-            String[] p = line.split("\\|");
+        Helpers.forEachRecord("classes.txt", line -> {
+            if (line.trim().isEmpty()) return true;
+            String[] p = Fields.split(line);
             if (p.length >= 3) result.add(p);
-        }
+            return true;
+        });
         return result;
     }
 
@@ -175,17 +402,19 @@ public class AdminStaff {
     // ==========================================
     public List<String[]> getGradingSystem() {
         List<String[]> grades = new ArrayList<>();
-        for (String line : Helpers.readFromFile("grading.txt")) {
-            if (line.trim().isEmpty()) continue;
-            String[] p = line.split("\\|");
+        Helpers.forEachRecord("grading.txt", line -> {
+            if (line.trim().isEmpty()) return true;
+            String[] p = Fields.split(line);
             if (p.length >= 3) grades.add(p);
-        }
+            return true;
+        });
         return grades;
     }
 
     public boolean saveGradingSystem(List<String> gradingLines) {
         if (gradingLines == null || gradingLines.isEmpty()) return false;
         Helpers.overwriteFile("grading.txt", gradingLines);
+        GradingScale.invalidate();
         return true;
     }
 
@@ -194,11 +423,12 @@ public class AdminStaff {
     // ==========================================
     public List<String[]> getAllModules() {
         List<String[]> modules = new ArrayList<>();
-        for (String line : Helpers.readFromFile("modules.txt")) {
-            if (line.trim().isEmpty()) continue;
-            String[] p = line.split("\\|");
+        Helpers.forEachRecord("modules.txt", line -> {
+            if (line.trim().isEmpty()) return true;
+            String[] p = Fields.split(line);
             if (p.length >= 3) modules.add(p);
-        }
+            return true;
+        });
         return modules;
     }
 
@@ -207,6 +437,7 @@ public class AdminStaff {
     // ==========================================
     public boolean updateProfile(String newName, String newEmail, String newPhone, String newAge) {
         if (!Helpers.validateEmail(newEmail) || newName == null || newName.trim().isEmpty()) return false;
+        if (Helpers.emailTaken(newEmail, userID)) return false;
         String updated = userID + "|Admin|" + password + "|" + newName
                          + "|" + gender + "|" + newEmail + "|" + newPhone + "|" + newAge;
         boolean success = Helpers.updateRecord("users.txt", userID, updated);
@@ -0,0 +1,728 @@
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.InetAddress;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * ApiServer.java - Headless HTTP/JSON API
+ * Serves the AdminStaff, Lecturer, Student and AcademicLeader operations
+ * to many clients at once, without any Swing frames. Started with
+ * "java Main --server [port]"; listens on localhost only.
+ *
+ * Each request runs on its own virtual thread (a cached thread pool on
+ * JDKs without them, see AsyncLoader.newExecutor). The role classes share
+ * the synchronized RecordStores; inserts that must be unique (a user's
+ * email, an enrollment) check and write in one locked step
+ * (RecordStore.appendUnless), so two requests at once cannot both pass.
+ *
+ *   POST /api/login    {"email": "...", "password": "..."}  ->  {"token": "..."}
+ *   GET  /api/student/results
+ *        Authorization: Bearer <token>
+ *   GET  /api/metrics  request counts, throughput and latency
+ *
+ * Parameters come from the query string and/or a flat JSON object (or
+ * form) body. Errors are {"error": "..."} with a 4xx/5xx status.
+ * GET /api/ lists every route.
+ */
+public class ApiServer {
+
+    public static final int DEFAULT_PORT = 8080;
+    private static final int MAX_BODY_BYTES = 64 * 1024;
+    private static final long SESSION_IDLE_MILLIS = 30 * 60 * 1000L;
+    // Roles POST /api/admin/users can create (Admin accounts are not created here)
+    private static final String[] ROLES = {"Lecturer", "Student", "Academic Leader"};
+    // Any logged-in user
+    private static final String ANY_ROLE = "*";
+
+    private final HttpServer server;
+    private final ExecutorService executor;
+    // "METHOD /path" -> route
+    private final Map<String, Route> routes = new LinkedHashMap<>();
+    // Login token -> session
+    private final Map<String, Session> sessions = new ConcurrentHashMap<>();
+    private final Metrics metrics = new Metrics();
+
+    /**
+     * @param port Port to listen on (0 picks a free one)
+     */
+    public ApiServer(int port) throws IOException {
+        server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), port), 0);
+        executor = AsyncLoader.newExecutor("afs-http");
+        server.setExecutor(executor);
+        server.createContext("/api/", this::handle);
+        registerRoutes();
+    }
+
+    public void start() {
+        server.start();
+    }
+
+    /**
+     * Stops accepting requests, waits up to delaySeconds for the ones in
+     * progress, then stops the request threads
+     */
+    public void stop(int delaySeconds) {
+        server.stop(delaySeconds);
+        executor.shutdown();
+        try {
+            executor.awaitTermination(delaySeconds, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    public int getPort() {
+        return server.getAddress().getPort();
+    }
+
+    // ==========================================
+    // 1. ROUTES
+    // ==========================================
+    private void registerRoutes() {
+        // Public
+        route("GET", "/api/", null, (s, p) -> new ArrayList<>(routes.keySet()));
+        route("POST", "/api/login", null, (s, p) -> login(p));
+        route("GET", "/api/metrics", null, (s, p) -> metrics.snapshot(sessions.size()));
+        route("POST", "/api/logout", ANY_ROLE, (s, p) -> {
+            sessions.remove(s.token);
+            return ok();
+        });
+        route("GET", "/api/me", ANY_ROLE, (s, p) -> object("userID", s.userID, "role", s.role, "name", s.name));
+
+        // Admin
+        route("GET", "/api/admin/users", "Admin", this::listUsers);
+        route("POST", "/api/admin/users", "Admin", (s, p) -> {
+            String role = required(p, "role");
+            if (!Arrays.asList(ROLES).contains(role)) {
+                throw new ApiException(400, "Role must be one of " + String.join(", ", ROLES) + ": " + role);
+            }
+            String age = required(p, "age");
+            if (!age.matches("\\d{1,3}")) throw new ApiException(400, "Parameter age must be a whole number");
+            String id = s.admin().createUser(role, required(p, "name"), required(p, "gender"),
+                required(p, "email"), required(p, "phone"), age, required(p, "password"));
+            if (id == null) throw new ApiException(400, "Invalid user details or email already in use");
+            return object("userID", id);
+        });
+        route("POST", "/api/admin/users/delete", "Admin", (s, p) ->
+            found(s.admin().deleteUser(required(p, "userID")), "No such user, or it is your own account"));
+        route("GET", "/api/admin/classes", "Admin", (s, p) ->
+            rows(s.admin().getAllClasses(), "classID", "className", "moduleID"));
+        route("POST", "/api/admin/classes", "Admin", (s, p) -> {
+            String id = s.admin().createClass(required(p, "className"), required(p, "moduleID"));
+            if (id == null) throw new ApiException(400, "Invalid class name or unknown module");
+            return object("classID", id);
+        });
+        route("GET", "/api/admin/modules", "Admin", (s, p) ->
+            rows(s.admin().getAllModules(), "moduleID", "moduleName", "leaderID"));
+
+        // Lecturer
+        route("GET", "/api/lecturer/modules", "Lecturer", (s, p) ->
+            rows(s.lecturer().getMyAssignedModuleDetails(), "moduleID", "moduleName", "leaderID"));
+        route("GET", "/api/lecturer/assessments", "Lecturer", (s, p) ->
+            rows(s.lecturer().getAssessmentsForModule(myModule(s, p)), "assessmentID", "moduleID", "name", "weightage"));
+        route("GET", "/api/lecturer/students", "Lecturer", (s, p) ->
+            s.lecturer().getStudentsForModule(myModule(s, p)));
+        route("POST", "/api/lecturer/marks", "Lecturer", (s, p) -> {
+            // Same checks as bulk entry (see Lecturer.MarkChecker)
+            String[] row = {required(p, "studentID"), myModule(s, p), required(p, "assessmentID"),
+                required(p, "marks"), optional(p, "feedback")};
+            List<String> errors = s.lecturer().inputMarksBatch(Collections.singletonList(row));
+            if (!errors.isEmpty()) throw new ApiException(400, errors.get(0));
+            return ok();
+        });
+        route("GET", "/api/lecturer/comments", "Lecturer", (s, p) ->
+            rows(s.lecturer().getLecturerComments(), "studentID", "comment"));
+        route("GET", "/api/lecturer/cohort", "Lecturer", (s, p) ->
+            cohort(s.lecturer().queryCohort(required(p, "q"))));
+
+        // Student
+        route("GET", "/api/student/results", "Student", (s, p) ->
+            rows(s.student().viewResults(), "studentID", "moduleID", "assessmentID", "marks", "feedback"));
+        route("POST", "/api/student/classes", "Student", (s, p) ->
+            found(s.student().registerForClasses(required(p, "classID")), "Already enrolled in that class"));
+        route("POST", "/api/student/comments", "Student", (s, p) ->
+            found(s.student().submitComments(required(p, "lecturerID"), required(p, "comment")), "Could not save comment"));
+
+        // Academic Leader
+        route("GET", "/api/leader/modules", "Academic Leader", (s, p) ->
+            rows(s.leader().getMyModules(), "moduleID", "moduleName", "leaderID"));
+        route("GET", "/api/leader/assignments", "Academic Leader", (s, p) ->
+            rows(s.leader().getMyAssignments(), "leaderID", "lecturerID", "moduleID"));
+        route("GET", "/api/leader/reports", "Academic Leader", (s, p) -> object("report", report(s.leader(), p)));
+        route("GET", "/api/leader/cohort", "Academic Leader", (s, p) ->
+            cohort(s.leader().queryCohort(required(p, "q"))));
+    }
+
+    private void route(String method, String path, String role, Handler handler) {
+        routes.put(method + " " + path, new Route(role, handler));
+    }
+
+    // Format: userID|role|password|name|gender|email|phone|age
+    private Object login(Map<String, String> p) {
+        String[] user = Main.authenticate(required(p, "email"), required(p, "password"));
+        if (user == null) throw new ApiException(401, "Invalid email or password");
+
+        // Drop sessions that expired without being presented again
+        long now = System.currentTimeMillis();
+        sessions.values().removeIf(session -> now - session.lastUsed > SESSION_IDLE_MILLIS);
+
+        String token = UUID.randomUUID().toString();
+        sessions.put(token, new Session(token, user[0], user[1], user[3]));
+        return object("token", token, "userID", user[0], "role", user[1], "name", user[3]);
+    }
+
+    /**
+     * One page of the filtered, sorted user list (see AdminStaff.queryUsers)
+     * Parameters: role, search, sort (a field name below), order (asc|desc), from, limit
+     */
+    private Object listUsers(Session s, Map<String, String> p) {
+        List<String> fields = Arrays.asList("userID", "role", "password", "name", "gender", "email", "phone", "age");
+        String sort = optional(p, "sort");
+        int sortField = sort.isEmpty() ? -1 : fields.indexOf(sort);
+        if (sortField < 0 && !sort.isEmpty() || sortField == 2) throw new ApiException(400, "Cannot sort on: " + sort);
+        String role = optional(p, "role");
+
+        int[] codes = s.admin().queryUsers(role.isEmpty() ? null : role, optional(p, "search"),
+            sortField, !optional(p, "order").equals("desc"));
+        int from = Math.min(number(p, "from", 0), codes.length);
+        int to = Math.min(from + Math.min(number(p, "limit", 100), 1000), codes.length);
+
+        List<Map<String, Object>> users = new ArrayList<>();
+        for (String[] user : s.admin().getUsersByCode(codes, from, to)) {
+            // Deleted since the query ran
+            if (user == null) continue;
+            users.add(object("userID", user[0], "role", user[1], "name", user[3], "gender", user[4],
+                "email", user[5], "phone", user[6], "age", user[7]));
+        }
+        return object("total", codes.length, "from", from, "users", users);
+    }
+
+    // The moduleID parameter, which must be one of the lecturer's modules
+    private static String myModule(Session s, Map<String, String> p) {
+        String moduleID = required(p, "moduleID");
+        if (!s.lecturer().getMyAssignedModules().contains(moduleID)) {
+            throw new ApiException(403, "Not assigned to module " + moduleID);
+        }
+        return moduleID;
+    }
+
+    // The moduleID parameter, which must be one of the leader's modules
+    private static String myLeaderModule(AcademicLeader leader, Map<String, String> p) {
+        String moduleID = required(p, "moduleID");
+        for (String[] module : leader.getMyModules()) {
+            if (module[0].equals(moduleID)) return moduleID;
+        }
+        throw new ApiException(403, "Not your module: " + moduleID);
+    }
+
+    private static String report(AcademicLeader leader, Map<String, String> p) {
+        String type = required(p, "type");
+        switch (type) {
+            case "grades":   return leader.getGradeDistributionReport();
+            case "workload": return leader.getLecturerWorkloadReport();
+            case "feedback": return leader.getFeedbackReport();
+            case "averages": return leader.getAverageMarksReport();
+            case "passfail": return leader.getPassFailReport(myLeaderModule(leader, p));
+            default:
+                throw new ApiException(400, "Unknown report type (grades, passfail, workload, feedback, averages): " + type);
+        }
+    }
+
+    private static Object cohort(List<String> students) {
+        if (students == null) throw new ApiException(400, "Invalid query, unknown ID, or an ID outside your modules");
+        return object("count", students.size(), "students", students);
+    }
+
+    // ==========================================
+    // 2. REQUEST HANDLING
+    // ==========================================
+    private void handle(HttpExchange exchange) {
+        long start = System.nanoTime();
+        metrics.inFlight.incrementAndGet();
+        String key = exchange.getRequestMethod() + " " + exchange.getRequestURI().getPath();
+        Route route = routes.get(key);
+        int status = 200;
+        Object body;
+
+        try {
+            if (route == null) {
+                throw routes.keySet().stream().anyMatch(k -> k.endsWith(" " + exchange.getRequestURI().getPath()))
+                    ? new ApiException(405, "Method not allowed")
+                    : new ApiException(404, "No such route: " + key);
+            }
+            Session session = route.role == null ? null : authorize(exchange, route.role);
+            body = route.handler.handle(session, readParams(exchange));
+        } catch (ApiException e) {
+            status = e.status;
+            body = object("error", e.getMessage());
+        } catch (RuntimeException e) {
+            System.err.println("Error handling " + key + ": " + e);
+            status = 500;
+            body = object("error", "Internal error");
+        }
+
+        try {
+            byte[] json = Json.write(body).getBytes(StandardCharsets.UTF_8);
+            exchange.getResponseHeaders().set("Content-Type", "application/json; charset=utf-8");
+            exchange.sendResponseHeaders(status, json.length);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(json);
+            }
+        } catch (IOException e) {
+            // Client went away
+            status = 499;
+        } finally {
+            exchange.close();
+            metrics.inFlight.decrementAndGet();
+            metrics.record(route == null ? "(unknown)" : key, status, System.nanoTime() - start);
+        }
+    }
+
+    private Session authorize(HttpExchange exchange, String role) {
+        String header = exchange.getRequestHeaders().getFirst("Authorization");
+        if (header == null || !header.startsWith("Bearer ")) throw new ApiException(401, "Login required");
+
+        Session session = sessions.get(header.substring(7).trim());
+        long now = System.currentTimeMillis();
+        if (session == null || now - session.lastUsed > SESSION_IDLE_MILLIS) {
+            if (session != null) sessions.remove(session.token);
+            throw new ApiException(401, "Login required");
+        }
+        session.lastUsed = now;
+        if (!role.equals(ANY_ROLE) && !role.equals(session.role)) {
+            throw new ApiException(403, "Requires role: " + role);
+        }
+        return session;
+    }
+
+    // Query string parameters, plus those of a JSON object or form
+    // (name=value&...) body
+    private static Map<String, String> readParams(HttpExchange exchange) {
+        Map<String, String> params = new HashMap<>();
+        parseForm(exchange.getRequestURI().getRawQuery(), params);
+
+        String body = readBody(exchange).trim();
+        if (body.startsWith("{")) {
+            params.putAll(Json.readObject(body));
+        } else {
+            parseForm(body, params);
+        }
+        return params;
+    }
+
+    private static String readBody(HttpExchange exchange) {
+        try (InputStream in = exchange.getRequestBody()) {
+            byte[] body = in.readNBytes(MAX_BODY_BYTES + 1);
+            if (body.length > MAX_BODY_BYTES) throw new ApiException(413, "Request body too large");
+            return new String(body, StandardCharsets.UTF_8);
+        } catch (IOException e) {
+            throw new ApiException(400, "Could not read request body");
+        }
+    }
+
+    private static void parseForm(String form, Map<String, String> params) {
+        if (form == null || form.isEmpty()) return;
+        for (String pair : form.split("&")) {
+            int eq = pair.indexOf('=');
+            String name = eq < 0 ? pair : pair.substring(0, eq);
+            String value = eq < 0 ? "" : pair.substring(eq + 1);
+            try {
+                params.put(URLDecoder.decode(name, StandardCharsets.UTF_8), URLDecoder.decode(value, StandardCharsets.UTF_8));
+            } catch (IllegalArgumentException e) {
+                throw new ApiException(400, "Malformed parameter: " + pair);
+            }
+        }
+    }
+
+    // ==========================================
+    // 3. PARAMETER HELPERS
+    // ==========================================
+    private static String required(Map<String, String> p, String name) {
+        String value = optional(p, name);
+        if (value.isEmpty()) throw new ApiException(400, "Missing parameter: " + name);
+        return value;
+    }
+
+    /**
+     * A parameter's value, trimmed ("" if absent or JSON null). Values are
+     * written into the pipe-delimited files, so '|' and line breaks are rejected.
+     */
+    private static String optional(Map<String, String> p, String name) {
+        String value = p.get(name);
+        value = value == null ? "" : value.trim();
+        if (value.indexOf('|') >= 0 || value.indexOf('\n') >= 0 || value.indexOf('\r') >= 0) {
+            throw new ApiException(400, "Parameter " + name + " may not contain '|' or line breaks");
+        }
+        return value;
+    }
+
+    private static int number(Map<String, String> p, String name, int defaultValue) {
+        String value = optional(p, name);
+        if (value.isEmpty()) return defaultValue;
+        try {
+            int n = Integer.parseInt(value);
+            if (n < 0) throw new NumberFormatException();
+            return n;
+        } catch (NumberFormatException e) {
+            throw new ApiException(400, "Parameter " + name + " must be a whole number >= 0");
+        }
+    }
+
+    private static Object found(boolean success, String failure) {
+        if (!success) throw new ApiException(400, failure);
+        return ok();
+    }
+
+    private static Map<String, Object> ok() {
+        return object("ok", true);
+    }
+
+    // {name1, value1, name2, value2, ...} -> JSON object, in that order
+    private static Map<String, Object> object(Object... namesAndValues) {
+        Map<String, Object> map = new LinkedHashMap<>();
+        for (int i = 0; i < namesAndValues.length; i += 2) {
+            map.put((String) namesAndValues[i], namesAndValues[i + 1]);
+        }
+        return map;
+    }
+
+    // File rows -> JSON objects with the given field names (extra fields dropped)
+    private static List<Map<String, Object>> rows(List<String[]> rows, String... names) {
+        List<Map<String, Object>> list = new ArrayList<>(rows.size());
+        for (String[] row : rows) {
+            Map<String, Object> map = new LinkedHashMap<>();
+            for (int i = 0; i < names.length; i++) {
+                map.put(names[i], i < row.length ? row[i] : null);
+            }
+            list.add(map);
+        }
+        return list;
+    }
+
+    // ==========================================
+    // 4. SESSIONS AND ROUTES
+    // ==========================================
+    private interface Handler {
+        Object handle(Session session, Map<String, String> params);
+    }
+
+    private static final class Route {
+        // Role required, ANY_ROLE, or null for no login
+        final String role;
+        final Handler handler;
+
+        Route(String role, Handler handler) {
+            this.role = role;
+            this.handler = handler;
+        }
+    }
+
+    /**
+     * A logged-in user. The role object is created on first use and
+     * reused, so its caches (e.g. AcademicLeader's report data) carry
+     * over between requests.
+     */
+    private static final class Session {
+        final String token;
+        final String userID;
+        final String role;
+        final String name;
+        volatile long lastUsed = System.currentTimeMillis();
+        private Object logic;
+
+        Session(String token, String userID, String role, String name) {
+            this.token = token;
+            this.userID = userID;
+            this.role = role;
+            this.name = name;
+        }
+
+        synchronized AdminStaff admin() {
+            if (logic == null) logic = new AdminStaff(userID);
+            return (AdminStaff) logic;
+        }
+
+        synchronized Lecturer lecturer() {
+            if (logic == null) logic = new Lecturer(userID);
+            return (Lecturer) logic;
+        }
+
+        synchronized AcademicLeader leader() {
+            if (logic == null) logic = new AcademicLeader(userID);
+            return (AcademicLeader) logic;
+        }
+
+        synchronized Student student() {
+            if (logic == null) logic = Main.getUserAsStudent(userID);
+            if (logic == null) throw new ApiException(404, "Student record not found");
+            return (Student) logic;
+        }
+    }
+
+    private static final class ApiException extends RuntimeException {
+        final int status;
+
+        ApiException(int status, String message) {
+            super(message);
+            this.status = status;
+        }
+    }
+
+    // ==========================================
+    // 5. METRICS
+    // ==========================================
+    /**
+     * Request counters. Updated by every request thread without locking;
+     * the per-second window may lose a count when a second rolls over,
+     * which is fine for a throughput figure.
+     */
+    private static final class Metrics {
+        private static final int WINDOW_SECONDS = 60;
+
+        final long startMillis = System.currentTimeMillis();
+        final AtomicInteger inFlight = new AtomicInteger();
+        final LongAdder requests = new LongAdder();
+        final LongAdder clientErrors = new LongAdder();
+        final LongAdder serverErrors = new LongAdder();
+        final LongAdder totalNanos = new LongAdder();
+        final AtomicLong maxNanos = new AtomicLong();
+        final Map<String, LongAdder> byRoute = new ConcurrentHashMap<>();
+        // Requests completed in each of the last WINDOW_SECONDS seconds
+        final AtomicLongArray secondOf = new AtomicLongArray(WINDOW_SECONDS);
+        final AtomicLongArray countOf = new AtomicLongArray(WINDOW_SECONDS);
+
+        void record(String route, int status, long nanos) {
+            requests.increment();
+            if (status >= 500) serverErrors.increment();
+            else if (status >= 400) clientErrors.increment();
+            totalNanos.add(nanos);
+            maxNanos.accumulateAndGet(nanos, Math::max);
+            byRoute.computeIfAbsent(route, r -> new LongAdder()).increment();
+
+            long second = System.currentTimeMillis() / 1000;
+            int slot = (int) (second % WINDOW_SECONDS);
+            long slotSecond = secondOf.get(slot);
+            if (slotSecond != second && secondOf.compareAndSet(slot, slotSecond, second)) countOf.set(slot, 0);
+            countOf.incrementAndGet(slot);
+        }
+
+        Map<String, Object> snapshot(int activeSessions) {
+            long now = System.currentTimeMillis();
+            long total = requests.sum();
+            double uptime = Math.max(now - startMillis, 1) / 1000.0;
+
+            // Whole seconds only: the current one is still filling up
+            long currentSecond = now / 1000;
+            long lastMinute = 0;
+            for (int i = 0; i < WINDOW_SECONDS; i++) {
+                long age = currentSecond - secondOf.get(i);
+                if (age >= 1 && age <= WINDOW_SECONDS) lastMinute += countOf.get(i);
+            }
+            double window = Math.min(WINDOW_SECONDS, Math.max(1, (long) uptime));
+
+            Map<String, Object> routeCounts = new TreeMap<>();
+            byRoute.forEach((route, count) -> routeCounts.put(route, count.sum()));
+
+            return object(
+                "uptimeSeconds", Math.round(uptime),
+                "requests", total,
+                "inFlight", inFlight.get(),
+                "activeSessions", activeSessions,
+                "clientErrors", clientErrors.sum(),
+                "serverErrors", serverErrors.sum(),
+                "requestsPerSecond", round(total / uptime),
+                "requestsPerSecondLastMinute", round(lastMinute / window),
+                "avgLatencyMillis", round(total == 0 ? 0 : totalNanos.sum() / 1e6 / total),
+                "maxLatencyMillis", round(maxNanos.get() / 1e6),
+                "byRoute", routeCounts);
+        }
+
+        private static double round(double value) {
+            return Math.round(value * 100) / 100.0;
+        }
+    }
+
+    // ==========================================
+    // 6. JSON
+    // ==========================================
+    /**
+     * Just enough JSON for this API: writes maps, lists, arrays, strings,
+     * numbers, booleans and null; reads one flat object whose values are
+     * strings, numbers, booleans or null (all returned as strings).
+     */
+    static final class Json {
+
+        static String write(Object value) {
+            StringBuilder sb = new StringBuilder();
+            write(value, sb);
+            return sb.toString();
+        }
+
+        private static void write(Object value, StringBuilder sb) {
+            if (value == null) {
+                sb.append("null");
+            } else if (value instanceof Number || value instanceof Boolean) {
+                sb.append(value);
+            } else if (value instanceof Map) {
+                sb.append('{');
+                boolean first = true;
+                for (Map.Entry<?, ?> e : ((Map<?, ?>) value).entrySet()) {
+                    if (!first) sb.append(',');
+                    first = false;
+                    writeString(String.valueOf(e.getKey()), sb);
+                    sb.append(':');
+                    write(e.getValue(), sb);
+                }
+                sb.append('}');
+            } else if (value instanceof Iterable) {
+                sb.append('[');
+                boolean first = true;
+                for (Object item : (Iterable<?>) value) {
+                    if (!first) sb.append(',');
+                    first = false;
+                    write(item, sb);
+                }
+                sb.append(']');
+            } else if (value instanceof Object[]) {
+                write(Arrays.asList((Object[]) value), sb);
+            } else {
+                writeString(value.toString(), sb);
+            }
+        }
+
+        private static void writeString(String s, StringBuilder sb) {
+            sb.append('"');
+            for (int i = 0; i < s.length(); i++) {
+                char c = s.charAt(i);
+                switch (c) {
+                    case '"':  sb.append("\\\""); break;
+                    case '\\': sb.append("\\\\"); break;
+                    case '\n': sb.append("\\n"); break;
+                    case '\r': sb.append("\\r"); break;
+                    case '\t': sb.append("\\t"); break;
+                    default:
+                        if (c < 0x20) sb.append(String.format("\\u%04x", (int) c));
+                        else sb.append(c);
+                }
+            }
+            sb.append('"');
+        }
+
+        /**
+         * Parses {"name": value, ...}; nested objects and arrays are rejected
+         */
+        static Map<String, String> readObject(String json) {
+            Reader r = new Reader(json);
+            Map<String, String> map = new HashMap<>();
+            r.expect('{');
+            if (!r.skip('}')) {
+                do {
+                    String name = r.string();
+                    r.expect(':');
+                    map.put(name, r.scalar());
+                } while (r.skip(','));
+                r.expect('}');
+            }
+            if (!r.atEnd()) throw r.error();
+            return map;
+        }
+
+        private static final class Reader {
+            private final String s;
+            private int pos;
+
+            Reader(String s) {
+                this.s = s;
+            }
+
+            private void whitespace() {
+                while (pos < s.length() && Character.isWhitespace(s.charAt(pos))) pos++;
+            }
+
+            boolean atEnd() {
+                whitespace();
+                return pos == s.length();
+            }
+
+            boolean skip(char c) {
+                whitespace();
+                if (pos < s.length() && s.charAt(pos) == c) {
+                    pos++;
+                    return true;
+                }
+                return false;
+            }
+
+            void expect(char c) {
+                if (!skip(c)) throw error();
+            }
+
+            ApiException error() {
+                return new ApiException(400, "Body must be a flat JSON object (error at character " + pos + ")");
+            }
+
+            String scalar() {
+                whitespace();
+                if (pos < s.length() && s.charAt(pos) == '"') return string();
+                int start = pos;
+                while (pos < s.length() && "+-.eE0123456789truefalsn".indexOf(s.charAt(pos)) >= 0) pos++;
+                String literal = s.substring(start, pos);
+                if (literal.equals("null")) return null;
+                if (literal.equals("true") || literal.equals("false")) return literal;
+                try {
+                    Double.parseDouble(literal);
+                    return literal;
+                } catch (NumberFormatException e) {
+                    throw error();
+                }
+            }
+
+            String string() {
+                expect('"');
+                StringBuilder sb = new StringBuilder();
+                while (pos < s.length()) {
+                    char c = s.charAt(pos++);
+                    if (c == '"') return sb.toString();
+                    if (c != '\\') {
+                        sb.append(c);
+                        continue;
+                    }
+                    if (pos >= s.length()) break;
+                    char e = s.charAt(pos++);
+                    switch (e) {
+                        case 'n': sb.append('\n'); break;
+                        case 'r': sb.append('\r'); break;
+                        case 't': sb.append('\t'); break;
+                        case 'b': sb.append('\b'); break;
+                        case 'f': sb.append('\f'); break;
+                        case 'u':
+                            if (pos + 4 > s.length()) throw error();
+                            try {
+                                sb.append((char) Integer.parseInt(s.substring(pos, pos + 4), 16));
+                            } catch (NumberFormatException ex) {
+                                throw error();
+                            }
+                            pos += 4;
+                            break;
+                        default: sb.append(e); // \" \\ \/
+                    }
+                }
+                throw error();
+            }
+        }
+    }
+}
@@ -0,0 +1,143 @@
+import javax.swing.*;
+import java.awt.*;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.*;
+import java.util.function.Consumer;
+
+/**
+ * AsyncLoader.java - Background Data Loading for the GUIs
+ * Runs file-scanning logic calls off the Swing event dispatch thread and
+ * hands their results back to it, so a large users.txt or results.txt no
+ * longer freezes the window.
+ *
+ *   loader.load("users", "Loading users...", logic::getAllUsers,
+ *               users -> fill the table);
+ *
+ * Each load has a key. Starting a load cancels the running load with the
+ * same key, and cancelAll() (called when the user navigates to another
+ * screen) cancels everything, so a stale result is never shown. While
+ * anything is loading, the window shows a progress bar over its content.
+ *
+ * One loader per window; load() / cancel() must be called on the EDT.
+ */
+public class AsyncLoader {
+
+    // Shared by all windows; virtual threads where the JVM has them
+    private static final ExecutorService EXECUTOR = newExecutor("afs-loader");
+
+    private final JFrame owner;
+    private final Map<String, SwingWorker<?, ?>> running = new HashMap<>();
+    private final JProgressBar progressBar = new JProgressBar();
+    private final JPanel busyPane = new JPanel(new GridBagLayout());
+
+    public AsyncLoader(JFrame owner) {
+        this.owner = owner;
+        progressBar.setIndeterminate(true);
+        progressBar.setStringPainted(true);
+        busyPane.setOpaque(false);
+        busyPane.add(progressBar);
+    }
+
+    // ==========================================
+    // 1. LOAD
+    // ==========================================
+    /**
+     * Runs task in the background, then passes its result to onLoaded on
+     * the EDT (unless the load was cancelled first)
+     *
+     * @param key Loads with the same key replace each other
+     * @param message Shown on the progress bar while loading
+     */
+    public <T> void load(String key, String message, Callable<T> task, Consumer<T> onLoaded) {
+        cancel(key);
+
+        SwingWorker<T, Void> worker = new SwingWorker<T, Void>() {
+            @Override
+            protected T doInBackground() throws Exception {
+                return task.call();
+            }
+
+            @Override
+            protected void done() {
+                // A newer load may already have taken this key
+                if (running.get(key) == this) running.remove(key);
+                updateBusy(null);
+                if (isCancelled()) return;
+                try {
+                    onLoaded.accept(get());
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                } catch (ExecutionException e) {
+                    Throwable cause = e.getCause();
+                    System.err.println("Error loading " + key + ": " + cause);
+                    JOptionPane.showMessageDialog(owner, "Could not load data: " + cause.getMessage(),
+                        "Error", JOptionPane.ERROR_MESSAGE);
+                }
+            }
+        };
+
+        running.put(key, worker);
+        updateBusy(message);
+        EXECUTOR.execute(worker);
+    }
+
+    // ==========================================
+    // 2. CANCEL
+    // ==========================================
+    /**
+     * Cancels the running load with this key, if any. Its result is dropped.
+     * The worker is not interrupted: an interrupt while a RecordStore is
+     * being loaded would close its file channel mid-read. The task runs to
+     * completion and done() discards the result.
+     */
+    public void cancel(String key) {
+        SwingWorker<?, ?> worker = running.remove(key);
+        if (worker != null) worker.cancel(false);
+        updateBusy(null);
+    }
+
+    /**
+     * Cancels every running load (call when leaving a screen)
+     */
+    public void cancelAll() {
+        for (SwingWorker<?, ?> worker : running.values()) worker.cancel(false);
+        running.clear();
+        updateBusy(null);
+    }
+
+    public boolean isLoading() {
+        return !running.isEmpty();
+    }
+
+    // ==========================================
+    // PROGRESS DISPLAY
+    // ==========================================
+    private void updateBusy(String message) {
+        if (message != null) progressBar.setString(message);
+        boolean busy = !running.isEmpty();
+        if (owner.getGlassPane() != busyPane) owner.setGlassPane(busyPane);
+        busyPane.setVisible(busy);
+        owner.setCursor(busy ? Cursor.getPredefinedCursor(Cursor.WAIT_CURSOR) : Cursor.getDefaultCursor());
+    }
+
+    // ==========================================
+    // EXECUTOR
+    // ==========================================
+    /**
+     * Virtual-thread-per-task executor on Java 21+, otherwise a cached pool
+     * of daemon threads. Looked up by reflection so the code still builds
+     * and runs on Java 17.
+     */
+    static ExecutorService newExecutor(String threadName) {
+        try {
+            return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+        } catch (ReflectiveOperationException e) {
+            return Executors.newCachedThreadPool(r -> {
+                Thread t = new Thread(r, threadName);
+                t.setDaemon(true);
+                return t;
+            });
+        }
+    }
+}
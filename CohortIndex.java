@@ -0,0 +1,266 @@
+import java.util.*;
+
+/**
+ * CohortIndex.java - Bitmap Indexes of Student Cohorts
+ * One IntBitmap of student codes (IdDictionary) for every:
+ *
+ *   class       students enrolled in it        (enrollments.txt)
+ *   module      students in any of its classes (classes.txt + enrollments.txt)
+ *   assessment  students with a result for it  (results.txt)
+ *
+ * so cohort questions are set operations instead of nested scans, e.g.
+ *   "CLS03 - AS05"       students in CLS03 with no result for AS05
+ *   "MOD101 & MOD102"    students enrolled in both modules
+ *
+ * The index is built from the three files once, then kept current from
+ * RecordStore change events like MarkStatistics: an enrollment or result
+ * line sets or clears one bit. A module's bitmap is the union of its
+ * classes', cached until one of them (or the class list) changes.
+ */
+public final class CohortIndex {
+
+    private static CohortIndex instance;
+
+    // Class / assessment code -> student codes
+    private final Map<Integer, IntBitmap> byClass = new HashMap<>();
+    private final Map<Integer, IntBitmap> byAssessment = new HashMap<>();
+    // (key code, student code) pairs present on more than one line -> extra lines,
+    // so deleting one duplicate does not clear the bit
+    private final Map<Long, Integer> duplicates = new HashMap<>();
+
+    // classes.txt: class code -> module code, module code -> class codes
+    private final Map<Integer, Integer> moduleOfClass = new HashMap<>();
+    private final Map<Integer, Set<Integer>> classesOfModule = new HashMap<>();
+    // Module code -> union of its classes' bitmaps, dropped when one changes
+    private final Map<Integer, IntBitmap> byModule = new HashMap<>();
+
+    private CohortIndex() {
+    }
+
+    // ==========================================
+    // 1. ACCESS
+    // ==========================================
+    /**
+     * Returns the shared index, building it from the files on first use
+     */
+    public static CohortIndex get() {
+        synchronized (CohortIndex.class) {
+            if (instance != null) return instance;
+        }
+        RecordStore classes = RecordStore.of("classes.txt");
+        RecordStore enrollments = RecordStore.of("enrollments.txt");
+        RecordStore results = RecordStore.of("results.txt");
+        synchronized (CohortIndex.class) {
+            if (instance != null) return instance;
+            CohortIndex index = new CohortIndex();
+            // classes.txt format: classID|className|moduleID
+            index.listen(classes, (oldLine, newLine) -> {
+                if (oldLine != null) index.mapClass(oldLine, false);
+                if (newLine != null) index.mapClass(newLine, true);
+            });
+            // enrollments.txt format: studentID|classID
+            index.listen(enrollments, (oldLine, newLine) -> {
+                if (oldLine != null) index.enroll(oldLine, false);
+                if (newLine != null) index.enroll(newLine, true);
+            });
+            // results.txt format: studentID|moduleID|assessmentID|marks|feedback
+            index.listen(results, (oldLine, newLine) -> {
+                if (oldLine != null) index.mark(index.byAssessment, oldLine, 2, false);
+                if (newLine != null) index.mark(index.byAssessment, newLine, 2, true);
+            });
+            instance = index;
+            return index;
+        }
+    }
+
+    /**
+     * Loads a store's current lines and subscribes to its later changes as
+     * one step. Lock order is always store -> index (same as change events).
+     */
+    private void listen(RecordStore store, RecordStore.ChangeListener listener) {
+        RecordStore.ChangeListener locked = (oldLine, newLine) -> {
+            synchronized (this) {
+                listener.recordChanged(oldLine, newLine);
+            }
+        };
+        synchronized (store) {
+            synchronized (this) {
+                for (String line : store.linesAndListen(locked)) listener.recordChanged(null, line);
+            }
+        }
+    }
+
+    // Students of one class, module or assessment (empty if it has none).
+    // The index's own bitmap; only use it while holding the lock
+    private IntBitmap cohortOf(int code) {
+        IntBitmap students = byClass.get(code);
+        if (students == null) students = moduleCohort(code);
+        if (students == null) students = byAssessment.get(code);
+        return students == null ? new IntBitmap() : students;
+    }
+
+    private IntBitmap moduleCohort(int module) {
+        IntBitmap students = byModule.get(module);
+        if (students != null) return students;
+        Set<Integer> classes = classesOfModule.get(module);
+        if (classes == null) return null;
+        students = new IntBitmap();
+        for (int classCode : classes) {
+            IntBitmap inClass = byClass.get(classCode);
+            if (inClass != null) students = IntBitmap.or(students, inClass);
+        }
+        byModule.put(module, students);
+        return students;
+    }
+
+    // ==========================================
+    // 2. QUERY
+    // ==========================================
+    /**
+     * Evaluates a cohort expression left to right. Operands are class,
+     * module or assessment IDs; operators (separated by spaces) are:
+     *
+     *   &   in both        |   in either        -   in the left but not the right
+     *
+     * @param expression e.g. "CLS03 - AS05" or "MOD101 & MOD102 | MOD103"
+     * @return Matching student IDs in ascending order, or null if the
+     *         expression is malformed or names an unknown ID
+     */
+    public List<String> query(String expression) {
+        String[] tokens = expression.trim().split("\\s+");
+        if (tokens.length % 2 == 0) {
+            System.err.println("Malformed cohort query: " + expression);
+            return null;
+        }
+        // Checked before taking the index lock: the stores are locked first
+        for (int i = 0; i < tokens.length; i += 2) {
+            if (!isKnownID(tokens[i])) return null;
+        }
+
+        IntBitmap result;
+        synchronized (this) {
+            result = cohortOf(IdDictionary.find(tokens[0]));
+            for (int i = 1; i < tokens.length; i += 2) {
+                IntBitmap right = cohortOf(IdDictionary.find(tokens[i + 1]));
+                switch (tokens[i]) {
+                    case "&": result = IntBitmap.and(result, right); break;
+                    case "|": result = IntBitmap.or(result, right); break;
+                    case "-": result = IntBitmap.andNot(result, right); break;
+                    default:
+                        System.err.println("Unknown cohort operator: " + tokens[i]);
+                        return null;
+                }
+            }
+            // A lone operand is the index's own bitmap
+            if (tokens.length == 1) result = result.copy();
+        }
+        return toIDs(result);
+    }
+
+    /**
+     * Like query(), for a user who may only see some modules: every operand
+     * must be one of them, or a class or assessment of one of them
+     *
+     * @return Matching student IDs, or null if the expression is malformed,
+     *         names an unknown ID or reaches outside the modules
+     */
+    public List<String> query(String expression, Set<String> modules) {
+        String[] tokens = expression.trim().split("\\s+");
+        for (int i = 0; i < tokens.length; i += 2) {
+            if (!modules.contains(moduleOf(tokens[i]))) {
+                System.err.println("Not one of your modules: " + tokens[i]);
+                return null;
+            }
+        }
+        return query(expression);
+    }
+
+    /**
+     * @return The module a class, module or assessment ID belongs to, or
+     *         null if it is none of these
+     */
+    public static String moduleOf(String id) {
+        if (RecordStore.of("modules.txt").contains(id)) return id;
+        // classes.txt format: classID|className|moduleID
+        String line = Helpers.findRecord("classes.txt", id);
+        if (line != null) return Fields.get(line, 2);
+        // assessments.txt format: assessmentID|moduleID|name|weightage
+        line = Helpers.findRecord("assessments.txt", id);
+        return line == null ? null : Fields.get(line, 1);
+    }
+
+    /**
+     * @return The student IDs of a bitmap, in ascending order
+     */
+    public static List<String> toIDs(IntBitmap students) {
+        List<String> ids = new ArrayList<>(students.cardinality());
+        for (int code : students.toArray()) ids.add(IdDictionary.id(code));
+        Collections.sort(ids);
+        return ids;
+    }
+
+    private static boolean isKnownID(String id) {
+        // A class or module with no enrollments yet is a valid, empty cohort
+        if (RecordStore.of("classes.txt").contains(id)
+                || RecordStore.of("modules.txt").contains(id)
+                || RecordStore.of("assessments.txt").contains(id)) {
+            return true;
+        }
+        System.err.println("Unknown class, module or assessment: " + id);
+        return false;
+    }
+
+    // ==========================================
+    // INCREMENTAL UPDATE (Called With the Index Locked)
+    // ==========================================
+    private void mapClass(String line, boolean add) {
+        int classCode = RecordStore.fieldCode(line, 0, true);
+        int module = RecordStore.fieldCode(line, 2, true);
+        if (classCode < 0 || module < 0) return;
+        if (add) {
+            moduleOfClass.put(classCode, module);
+            classesOfModule.computeIfAbsent(module, k -> new HashSet<>()).add(classCode);
+        } else if (moduleOfClass.remove(classCode, module)) {
+            Set<Integer> classes = classesOfModule.get(module);
+            classes.remove(classCode);
+            if (classes.isEmpty()) classesOfModule.remove(module);
+        }
+        byModule.remove(module);
+    }
+
+    private void enroll(String line, boolean add) {
+        int classCode = mark(byClass, line, 1, add);
+        Integer module = moduleOfClass.get(classCode);
+        if (module != null) byModule.remove(module);
+    }
+
+    /**
+     * Sets or clears the bit of a line's student (field 0) in the bitmap
+     * of its key field
+     *
+     * @return The key code, or -1 if the line has no key or student
+     */
+    private int mark(Map<Integer, IntBitmap> map, String line, int keyField, boolean add) {
+        if (line.trim().isEmpty()) return -1;
+        int key = RecordStore.fieldCode(line, keyField, true);
+        int student = RecordStore.fieldCode(line, 0, true);
+        if (key < 0 || student < 0) return -1;
+        long pair = (long) key << 32 | student;
+
+        IntBitmap students = map.get(key);
+        if (add) {
+            if (students == null) map.put(key, students = new IntBitmap());
+            if (students.contains(student)) duplicates.merge(pair, 1, Integer::sum);
+            else students.add(student);
+        } else if (students != null) {
+            Integer extra = duplicates.get(pair);
+            if (extra != null) {
+                if (extra == 1) duplicates.remove(pair); else duplicates.put(pair, extra - 1);
+                return key;
+            }
+            students.remove(student);
+            if (students.isEmpty()) map.remove(key);
+        }
+        return key;
+    }
+}
@@ -0,0 +1,156 @@
+import java.util.*;
+
+/**
+ * CollectionsBenchmark.java - Primitive vs java.util Collections
+ * Compares IntListMap and IntSet with the java.util structures they replace
+ * (HashMap<Integer, List<Integer>> and HashSet<Integer>) on data shaped like
+ * the enrollment and result indexes: many students, a few entries each.
+ * Reports build time, lookup time and retained heap for each.
+ *
+ * Run: java CollectionsBenchmark [students] [entriesPerStudent]
+ */
+public class CollectionsBenchmark {
+
+    // Holds the structure being measured so the JIT cannot treat it as dead
+    private static Object retained;
+
+    public static void main(String[] args) {
+        int students = args.length > 0 ? Integer.parseInt(args[0]) : 200_000;
+        int perStudent = args.length > 1 ? Integer.parseInt(args[1]) : 18;
+        Random random = new Random(42);
+
+        // Key -> values pairs, like student -> result positions
+        int[] keys = new int[students * perStudent];
+        int[] values = new int[keys.length];
+        for (int i = 0; i < keys.length; i++) {
+            keys[i] = random.nextInt(students);
+            values[i] = i;
+        }
+        int[] probes = new int[1_000_000];
+        for (int i = 0; i < probes.length; i++) probes[i] = random.nextInt(students * 2);
+
+        System.out.printf("%d keys, %d values, %d lookups%n%n", students, keys.length, probes.length);
+        System.out.printf("%-34s %10s %10s %10s%n", "Structure", "Build ms", "Lookup ms", "Heap MB");
+
+        // Warm up both paths once so the JIT has compiled them
+        buildBoxedMap(keys, values);
+        buildIntListMap(keys, values);
+
+        // Each run is its own method so the previous structure is garbage
+        // by the time the next one is measured
+        long[] boxedMap = runBoxedMap(keys, values, probes);
+        print("HashMap<Integer, List<Integer>>", boxedMap);
+        long[] intListMap = runIntListMap(keys, values, probes);
+        print("IntListMap", intListMap);
+        long[] boxedSet = runBoxedSet(keys, probes);
+        print("HashSet<Integer>", boxedSet);
+        long[] intSet = runIntSet(keys, probes);
+        print("IntSet", intSet);
+
+        if (boxedMap[3] != intListMap[3] || boxedSet[3] != intSet[3]) {
+            System.err.println("Lookup results differ between java.util and primitive structures");
+        }
+    }
+
+    // Each run returns {build nanos, lookup nanos, retained heap bytes, lookup checksum}
+
+    private static long[] runBoxedMap(int[] keys, int[] values, int[] probes) {
+        long before = usedHeap();
+        long t0 = System.nanoTime();
+        Map<Integer, List<Integer>> map = buildBoxedMap(keys, values);
+        long t1 = System.nanoTime();
+        long sum = 0;
+        for (int probe : probes) {
+            List<Integer> list = map.get(probe);
+            if (list != null) sum += list.size();
+        }
+        long t2 = System.nanoTime();
+        retained = map;
+        long heap = usedHeap() - before;
+        retained = null;
+        return new long[]{t1 - t0, t2 - t1, heap, sum};
+    }
+
+    private static long[] runIntListMap(int[] keys, int[] values, int[] probes) {
+        long before = usedHeap();
+        long t0 = System.nanoTime();
+        IntListMap map = buildIntListMap(keys, values);
+        long t1 = System.nanoTime();
+        long sum = 0;
+        for (int probe : probes) {
+            int at = map.indexOf(probe);
+            if (at >= 0) sum += map.sizeAt(at);
+        }
+        long t2 = System.nanoTime();
+        retained = map;
+        long heap = usedHeap() - before;
+        retained = null;
+        return new long[]{t1 - t0, t2 - t1, heap, sum};
+    }
+
+    private static long[] runBoxedSet(int[] keys, int[] probes) {
+        long before = usedHeap();
+        long t0 = System.nanoTime();
+        Set<Integer> set = new HashSet<>();
+        for (int key : keys) set.add(key);
+        long t1 = System.nanoTime();
+        long sum = 0;
+        for (int probe : probes) {
+            if (set.contains(probe)) sum++;
+        }
+        long t2 = System.nanoTime();
+        retained = set;
+        long heap = usedHeap() - before;
+        retained = null;
+        return new long[]{t1 - t0, t2 - t1, heap, sum};
+    }
+
+    private static long[] runIntSet(int[] keys, int[] probes) {
+        long before = usedHeap();
+        long t0 = System.nanoTime();
+        IntSet set = new IntSet();
+        for (int key : keys) set.add(key);
+        long t1 = System.nanoTime();
+        long sum = 0;
+        for (int probe : probes) {
+            if (set.contains(probe)) sum++;
+        }
+        long t2 = System.nanoTime();
+        retained = set;
+        long heap = usedHeap() - before;
+        retained = null;
+        return new long[]{t1 - t0, t2 - t1, heap, sum};
+    }
+
+    private static Map<Integer, List<Integer>> buildBoxedMap(int[] keys, int[] values) {
+        Map<Integer, List<Integer>> map = new HashMap<>();
+        for (int i = 0; i < keys.length; i++) {
+            map.computeIfAbsent(keys[i], k -> new ArrayList<>(1)).add(values[i]);
+        }
+        return map;
+    }
+
+    private static IntListMap buildIntListMap(int[] keys, int[] values) {
+        IntListMap map = new IntListMap();
+        for (int i = 0; i < keys.length; i++) map.add(keys[i], values[i]);
+        return map;
+    }
+
+    private static void print(String name, long[] run) {
+        System.out.printf("%-34s %10.1f %10.1f %10.1f%n", name,
+            run[0] / 1e6, run[1] / 1e6, run[2] / (1024.0 * 1024));
+    }
+
+    private static long usedHeap() {
+        Runtime rt = Runtime.getRuntime();
+        long used = Long.MAX_VALUE;
+        // Collect until the figure stops dropping
+        for (int i = 0; i < 10; i++) {
+            System.gc();
+            long now = rt.totalMemory() - rt.freeMemory();
+            if (now >= used) break;
+            used = now;
+        }
+        return used;
+    }
+}
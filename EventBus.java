@@ -0,0 +1,261 @@
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Consumer;
+
+/**
+ * EventBus.java - In-Process Publish/Subscribe for Record Changes
+ * Turns RecordStore changes to users.txt, results.txt, comments.txt and
+ * assignments.txt into typed events (UserEvent, ResultEvent, ...) and
+ * delivers them to subscribers, so an open dashboard or a cache can update
+ * itself instead of re-reading the file.
+ *
+ *   Subscription s = EventBus.get().subscribe(ResultEvent.class,
+ *       SwingUtilities::invokeLater, e -> updateRow(e));
+ *   ...
+ *   s.close();
+ *
+ * The first get() loads every bridged store, so GUI code on the EDT uses
+ * subscribeAsync() instead, which does that on a background thread.
+ *
+ * Publishing never blocks the writer: the store's change listener only
+ * appends the event to each subscriber's queue. Each subscriber drains its
+ * own queue on its executor (a shared background pool by default, or e.g.
+ * the EDT), one event at a time and in publish order, so a slow subscriber
+ * only delays itself.
+ */
+public final class EventBus {
+
+    // Files bridged from RecordStore, and the event type each one publishes
+    private static final String[] FILES = {"users.txt", "results.txt", "comments.txt", "assignments.txt"};
+
+    private static EventBus instance;
+
+    private static final ExecutorService DELIVERY = AsyncLoader.newExecutor("afs-events");
+
+    private final List<Subscriber<?>> subscribers = new CopyOnWriteArrayList<>();
+
+    private EventBus() {
+    }
+
+    // ==========================================
+    // 1. EVENT TYPES
+    // ==========================================
+    public enum Kind { INSERTED, UPDATED, DELETED }
+
+    /**
+     * One record inserted, updated or deleted. oldLine is null for an
+     * insert and newLine is null for a delete.
+     */
+    public static class RecordEvent {
+        private final String fileName;
+        private final String oldLine;
+        private final String newLine;
+
+        RecordEvent(String fileName, String oldLine, String newLine) {
+            this.fileName = fileName;
+            this.oldLine = oldLine;
+            this.newLine = newLine;
+        }
+
+        public String getFileName() { return fileName; }
+        public String getOldLine()  { return oldLine; }
+        public String getNewLine()  { return newLine; }
+
+        public Kind getKind() {
+            return oldLine == null ? Kind.INSERTED : newLine == null ? Kind.DELETED : Kind.UPDATED;
+        }
+
+        /**
+         * The record as it is now (as it was, for a delete)
+         */
+        public String getLine() {
+            return newLine != null ? newLine : oldLine;
+        }
+
+        /**
+         * Field n of the record, or null if it has fewer fields
+         */
+        public String field(int n) {
+            return Fields.get(getLine(), n);
+        }
+
+        public String getID() { return field(0); }
+    }
+
+    // users.txt format: userID|role|password|name|gender|email|phone|age
+    public static final class UserEvent extends RecordEvent {
+        UserEvent(String oldLine, String newLine) { super("users.txt", oldLine, newLine); }
+        public String getRole() { return field(1); }
+    }
+
+    // results.txt format: studentID|moduleID|assessmentID|marks|feedback
+    public static final class ResultEvent extends RecordEvent {
+        ResultEvent(String oldLine, String newLine) { super("results.txt", oldLine, newLine); }
+        public String getStudentID()    { return field(0); }
+        public String getModuleID()     { return field(1); }
+        public String getAssessmentID() { return field(2); }
+        public String getMarks()        { return field(3); }
+        public String getFeedback()     { return field(4); }
+    }
+
+    // comments.txt format: studentID|lecturerID|comment
+    public static final class CommentEvent extends RecordEvent {
+        CommentEvent(String oldLine, String newLine) { super("comments.txt", oldLine, newLine); }
+        public String getStudentID()  { return field(0); }
+        public String getLecturerID() { return field(1); }
+        public String getComment()    { return field(2); }
+    }
+
+    // assignments.txt format: leaderID|lecturerID|moduleID
+    public static final class AssignmentEvent extends RecordEvent {
+        AssignmentEvent(String oldLine, String newLine) { super("assignments.txt", oldLine, newLine); }
+        public String getLeaderID()   { return field(0); }
+        public String getLecturerID() { return field(1); }
+        public String getModuleID()   { return field(2); }
+    }
+
+    // ==========================================
+    // 2. ACCESS
+    // ==========================================
+    /**
+     * Returns the bus, subscribing it to the bridged RecordStores on first use
+     */
+    public static synchronized EventBus get() {
+        if (instance == null) {
+            EventBus bus = new EventBus();
+            for (String file : FILES) {
+                RecordStore.of(file).addListener((oldLine, newLine) -> bus.publish(toEvent(file, oldLine, newLine)));
+            }
+            instance = bus;
+        }
+        return instance;
+    }
+
+    private static RecordEvent toEvent(String file, String oldLine, String newLine) {
+        switch (file) {
+            case "users.txt":       return new UserEvent(oldLine, newLine);
+            case "results.txt":     return new ResultEvent(oldLine, newLine);
+            case "comments.txt":    return new CommentEvent(oldLine, newLine);
+            case "assignments.txt": return new AssignmentEvent(oldLine, newLine);
+            default:                return new RecordEvent(file, oldLine, newLine);
+        }
+    }
+
+    // ==========================================
+    // 3. PUBLISH / SUBSCRIBE
+    // ==========================================
+    /**
+     * Queues an event for every subscriber of its type (or a supertype).
+     * Returns at once; delivery happens on the subscribers' executors.
+     */
+    public void publish(RecordEvent event) {
+        for (Subscriber<?> subscriber : subscribers) subscriber.offer(event);
+    }
+
+    /**
+     * Subscribes on the shared background pool
+     */
+    public <E extends RecordEvent> Subscription subscribe(Class<E> type, Consumer<? super E> handler) {
+        return subscribe(type, DELIVERY, handler);
+    }
+
+    /**
+     * Subscribes to events of a type, delivered in order on the executor
+     * (pass SwingUtilities::invokeLater to be called on the EDT)
+     */
+    public <E extends RecordEvent> Subscription subscribe(Class<E> type, Executor executor,
+                                                         Consumer<? super E> handler) {
+        Subscriber<E> subscriber = new Subscriber<>(type, executor, handler);
+        subscribers.add(subscriber);
+        return () -> {
+            subscriber.closed = true;
+            subscribers.remove(subscriber);
+        };
+    }
+
+    /**
+     * Subscribes from a background thread and returns at once, so the EDT
+     * never waits for the first get() to load the bridged stores. Events
+     * are delivered from when the subscription is made; the handle can be
+     * closed at any time, even before then.
+     */
+    public static <E extends RecordEvent> Subscription subscribeAsync(Class<E> type, Executor executor,
+                                                                      Consumer<? super E> handler) {
+        PendingSubscription pending = new PendingSubscription();
+        DELIVERY.execute(() -> {
+            try {
+                pending.set(get().subscribe(type, executor, handler));
+            } catch (RuntimeException e) {
+                System.err.println("Could not subscribe to " + type.getSimpleName() + ": " + e.getMessage());
+            }
+        });
+        return pending;
+    }
+
+    /**
+     * Handle returned by subscribe(); close() stops delivery (events
+     * already queued are dropped)
+     */
+    public interface Subscription extends AutoCloseable {
+        @Override
+        void close();
+    }
+
+    // Handle for subscribeAsync(): closing it before the subscription is
+    // made closes the subscription as soon as it arrives
+    private static final class PendingSubscription implements Subscription {
+        private Subscription subscription;
+        private boolean closed;
+
+        synchronized void set(Subscription s) {
+            if (closed) s.close(); else subscription = s;
+        }
+
+        @Override
+        public synchronized void close() {
+            closed = true;
+            if (subscription != null) subscription.close();
+        }
+    }
+
+    // ==========================================
+    // SUBSCRIBER QUEUE
+    // ==========================================
+    private static final class Subscriber<E extends RecordEvent> {
+        private final Class<E> type;
+        private final Executor executor;
+        private final Consumer<? super E> handler;
+        private final Queue<E> queue = new ConcurrentLinkedQueue<>();
+        // True while a drain task is queued or running
+        private final AtomicBoolean scheduled = new AtomicBoolean();
+        private volatile boolean closed;
+
+        Subscriber(Class<E> type, Executor executor, Consumer<? super E> handler) {
+            this.type = type;
+            this.executor = executor;
+            this.handler = handler;
+        }
+
+        void offer(RecordEvent event) {
+            if (closed || !type.isInstance(event)) return;
+            queue.add(type.cast(event));
+            if (scheduled.compareAndSet(false, true)) executor.execute(this::drain);
+        }
+
+        private void drain() {
+            E event;
+            while (!closed && (event = queue.poll()) != null) {
+                try {
+                    handler.accept(event);
+                } catch (RuntimeException e) {
+                    System.err.println("Event subscriber failed on " + event.getFileName() + ": " + e.getMessage());
+                }
+            }
+            scheduled.set(false);
+            // An event may have arrived after the last poll
+            if (!closed && !queue.isEmpty() && scheduled.compareAndSet(false, true)) executor.execute(this::drain);
+        }
+    }
+}
@@ -0,0 +1,170 @@
+/**
+ * Fields.java - Pipe-Delimited Field Access
+ * Reads single fields of a record line (e.g. "STU01|MOD101|AS01|72|Good")
+ * by scanning for '|' instead of calling line.split("\\|"), so comparing or
+ * parsing one field does not allocate an array plus a String per field.
+ *
+ * Field numbering and counts follow String.split exactly: trailing empty
+ * fields do not exist ("a|b||" has 2 fields) and "" has one empty field.
+ * A field that split would not return reads as null / false / fallback.
+ */
+public final class Fields {
+
+    private Fields() {}
+
+    // ==========================================
+    // 1. LOCATE
+    // ==========================================
+    /**
+     * @return Start offset of field n, or -1 if the line has no such field
+     */
+    private static int start(String line, int n) {
+        int start = 0;
+        for (int i = 0; i < n; i++) {
+            start = line.indexOf('|', start) + 1;
+            if (start == 0) return -1;
+        }
+        if (line.isEmpty()) return 0;
+        // split() drops trailing empty fields: field n only exists if
+        // something other than '|' follows its start
+        for (int i = start; i < line.length(); i++) {
+            if (line.charAt(i) != '|') return start;
+        }
+        return -1;
+    }
+
+    private static int end(String line, int start) {
+        int end = line.indexOf('|', start);
+        return end < 0 ? line.length() : end;
+    }
+
+    /**
+     * Number of fields, same as line.split("\\|").length
+     */
+    public static int count(String line) {
+        if (line.isEmpty()) return 1;
+        int end = line.length();
+        while (end > 0 && line.charAt(end - 1) == '|') end--;
+        if (end == 0) return 0;
+        int count = 1;
+        for (int i = 0; i < end; i++) {
+            if (line.charAt(i) == '|') count++;
+        }
+        return count;
+    }
+
+    // ==========================================
+    // 2. COMPARE (No Allocation)
+    // ==========================================
+    /**
+     * @return true if field n exists and equals value
+     */
+    public static boolean equals(String line, int n, String value) {
+        int start = start(line, n);
+        if (start < 0) return false;
+        int end = end(line, start);
+        return end - start == value.length() && line.regionMatches(start, value, 0, value.length());
+    }
+
+    // ==========================================
+    // 3. EXTRACT
+    // ==========================================
+    /**
+     * @return Field n, or null if the line has no such field
+     */
+    public static String get(String line, int n) {
+        int start = start(line, n);
+        return start < 0 ? null : line.substring(start, end(line, start));
+    }
+
+    /**
+     * Fields first..last with their separators as one string
+     * (e.g. span("STU01|MOD101|AS01|72", 1, 2) is "MOD101|AS01"), or null
+     * if field last does not exist
+     */
+    public static String span(String line, int first, int last) {
+        int from = start(line, first), to = start(line, last);
+        if (from < 0 || to < 0) return null;
+        return line.substring(from, end(line, to));
+    }
+
+    /**
+     * Every field, same result as line.split("\\|")
+     */
+    public static String[] split(String line) {
+        String[] parts = new String[count(line)];
+        int start = 0;
+        for (int i = 0; i < parts.length; i++) {
+            int end = end(line, start);
+            parts[i] = line.substring(start, end);
+            start = end + 1;
+        }
+        return parts;
+    }
+
+    // ==========================================
+    // 4. PARSE NUMBERS
+    // ==========================================
+    /**
+     * Parses field n as a double straight from the line's characters.
+     * Plain decimals ("72", "-3.5", " 64.99 ") are parsed in place with the
+     * same result as Double.parseDouble; anything else (exponents, "NaN",
+     * very long numbers) falls back to Double.parseDouble on the field.
+     *
+     * @return The value, or fallback if the field is missing or not a number
+     */
+    public static double parseDouble(String line, int n, double fallback) {
+        int start = start(line, n);
+        if (start < 0) return fallback;
+        return parseDouble(line, start, end(line, start), fallback);
+    }
+
+    /**
+     * Same as parseDouble(line, n, fallback) for the characters [start, end)
+     */
+    static double parseDouble(CharSequence line, int start, int end, double fallback) {
+        // Double.parseDouble trims the same way
+        int i = start, e = end;
+        while (i < e && line.charAt(i) <= ' ') i++;
+        while (e > i && line.charAt(e - 1) <= ' ') e--;
+
+        boolean negative = false;
+        if (i < e && (line.charAt(i) == '-' || line.charAt(i) == '+')) {
+            negative = line.charAt(i) == '-';
+            i++;
+        }
+        long mantissa = 0;
+        int digits = 0, scale = 0;
+        boolean dot = false, plain = i < e;
+        for (int k = i; k < e; k++) {
+            char c = line.charAt(k);
+            if (c >= '0' && c <= '9') {
+                mantissa = mantissa * 10 + (c - '0');
+                if (mantissa != 0) digits++;
+                if (dot) scale++;
+            } else if (c == '.' && !dot) {
+                dot = true;
+            } else {
+                plain = false;
+                break;
+            }
+        }
+        // Exact while the mantissa and the power of ten are both exact doubles;
+        // one correctly rounded division then matches Double.parseDouble
+        if (plain && (e - i) > (dot ? 1 : 0) && digits <= 15 && scale < POWERS_OF_TEN.length) {
+            double value = mantissa / POWERS_OF_TEN[scale];
+            return negative ? -value : value;
+        }
+
+        try {
+            return Double.parseDouble(line.subSequence(start, end).toString());
+        } catch (NumberFormatException ex) {
+            return fallback;
+        }
+    }
+
+    private static final double[] POWERS_OF_TEN = {
+        1e0, 1e1, 1e2, 1e3, 1e4, 1e5, 1e6, 1e7, 1e8, 1e9, 1e10, 1e11,
+        1e12, 1e13, 1e14, 1e15, 1e16, 1e17, 1e18, 1e19, 1e20, 1e21, 1e22
+    };
+}
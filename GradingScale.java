@@ -0,0 +1,113 @@
+import java.util.*;
+
+/**
+ * GradingScale.java - Cached Grading Bands
+ * Loads grading.txt (format: grade|minMark|maxMark) once into primitive
+ * arrays sorted by minimum mark, so a grade lookup is a binary search
+ * instead of a file read. The cache is dropped only when AdminStaff saves a
+ * new scale (see invalidate()).
+ */
+public class GradingScale {
+
+    private static GradingScale current;
+
+    // Bands sorted by min mark
+    private final double[] mins;
+    private final double[] maxs;
+    private final String[] grades;
+    // Position of each band in grading.txt, so overlapping bands resolve like a top-down scan
+    private final int[] fileOrder;
+    // Highest max among bands 0..i, lets lookups stop walking back early
+    private final double[] prefixMax;
+    // Every grade named in grading.txt, in file order (report rows)
+    private final List<String> gradeNames;
+
+    private GradingScale(List<String> lines) {
+        List<double[]> bands = new ArrayList<>();
+        List<String> bandGrades = new ArrayList<>();
+        List<String> names = new ArrayList<>();
+
+        for (String line : lines) {
+            if (line.trim().isEmpty()) continue;
+            String grade = Fields.get(line, 0);
+            if (grade != null) names.add(grade);
+            double min = Fields.parseDouble(line, 1, Double.NaN);
+            double max = Fields.parseDouble(line, 2, Double.NaN);
+            if (!Double.isNaN(min) && !Double.isNaN(max)) {
+                bands.add(new double[]{min, max, bands.size()});
+                bandGrades.add(grade);
+            }
+        }
+
+        Integer[] order = new Integer[bands.size()];
+        for (int i = 0; i < order.length; i++) order[i] = i;
+        Arrays.sort(order, (a, b) -> Double.compare(bands.get(a)[0], bands.get(b)[0]));
+
+        int n = order.length;
+        mins = new double[n];
+        maxs = new double[n];
+        grades = new String[n];
+        fileOrder = new int[n];
+        prefixMax = new double[n];
+        for (int i = 0; i < n; i++) {
+            double[] band = bands.get(order[i]);
+            mins[i] = band[0];
+            maxs[i] = band[1];
+            grades[i] = bandGrades.get(order[i]);
+            fileOrder[i] = (int) band[2];
+            prefixMax[i] = i == 0 ? maxs[i] : Math.max(prefixMax[i - 1], maxs[i]);
+        }
+        gradeNames = Collections.unmodifiableList(names);
+    }
+
+    // ==========================================
+    // CACHE ACCESS
+    // ==========================================
+    /**
+     * Returns the cached scale, loading grading.txt on first use
+     */
+    public static synchronized GradingScale current() {
+        if (current == null) {
+            current = new GradingScale(Helpers.readFromFile("grading.txt"));
+        }
+        return current;
+    }
+
+    /**
+     * Drops the cached scale; called whenever grading.txt is rewritten
+     */
+    public static synchronized void invalidate() {
+        current = null;
+    }
+
+    // ==========================================
+    // LOOKUP
+    // ==========================================
+    /**
+     * Converts marks to a grade
+     *
+     * @param marks The marks to grade
+     * @return The grade of the band containing marks, or "F" if none does
+     */
+    public String gradeFor(double marks) {
+        // Last band whose min <= marks
+        int lo = 0, hi = mins.length - 1, idx = -1;
+        while (lo <= hi) {
+            int mid = (lo + hi) >>> 1;
+            if (mins[mid] <= marks) { idx = mid; lo = mid + 1; }
+            else hi = mid - 1;
+        }
+
+        // Usually the first candidate matches; walk back only while an
+        // earlier band could still reach marks (overlapping scales)
+        int best = -1;
+        for (int i = idx; i >= 0 && prefixMax[i] >= marks; i--) {
+            if (marks <= maxs[i] && (best == -1 || fileOrder[i] < fileOrder[best])) best = i;
+        }
+        return best == -1 ? "F" : grades[best];
+    }
+
+    public List<String> getGradeNames() {
+        return gradeNames;
+    }
+}
@@ -0,0 +1,129 @@
+import java.io.IOException;
+import java.nio.charset.Charset;
+import java.nio.file.*;
+import java.util.*;
+
+/**
+ * HeapReport.java - Heap Footprint Report
+ * Measures the heap taken by the data files two ways and prints both:
+ *
+ *   baseline     every line as a String in an ArrayList, with HashMap
+ *                indexes from each indexed field's value (a substring) to
+ *                a List<Integer> of line numbers
+ *   RecordStore  the resident stores with the same indexes (IdDictionary
+ *                codes and IntListMap positions)
+ *
+ * The baseline is loaded, measured and released first, so both figures
+ * start from the same empty heap. Meant to be run on its own
+ * (java Main --heap-report) so the measurement covers a fresh load of the
+ * whole institution and nothing else.
+ */
+public class HeapReport {
+
+    public static final String[] DATA_FILES = {
+        "users.txt", "modules.txt", "classes.txt", "assignments.txt", "leaderAssignments.txt",
+        "enrollments.txt", "grading.txt", "assessments.txt", "results.txt", "comments.txt"
+    };
+
+    // Secondary indexes built by normal use: {file index in DATA_FILES, field}
+    private static final int[][] INDEXED_FIELDS = {
+        {0, 1}, {0, 5},       // users: role, email
+        {1, 2},               // modules: leader
+        {2, 2},               // classes: module
+        {5, 1},               // enrollments: class
+        {7, 1},               // assessments: module
+    };
+
+    // ==========================================
+    // BUILD REPORT
+    // ==========================================
+    public static String build() {
+        long start = usedHeap();
+        List<Object> baseline = loadBaseline();
+        long baselineUsed = usedHeap() - start;
+        baseline.clear();
+
+        long before = usedHeap();
+        long lines = 0, chars = 0;
+        StringBuilder sb = new StringBuilder();
+        sb.append(String.format("%-22s %10s %12s%n", "File", "Lines", "Chars"));
+
+        for (String file : DATA_FILES) {
+            long[] fileChars = {0};
+            RecordStore store = RecordStore.of(file);
+            store.scan(line -> {
+                fileChars[0] += line.length();
+                return true;
+            });
+            lines += store.size();
+            chars += fileChars[0];
+            sb.append(String.format("%-22s %10d %12d%n", file, store.size(), fileChars[0]));
+        }
+        for (int[] index : INDEXED_FIELDS) {
+            RecordStore.of(DATA_FILES[index[0]]).findBy(index[1], "");
+        }
+
+        long used = usedHeap() - before;
+        sb.append(String.format("%nTotal lines:           %d (%.0f chars per line)%n",
+            lines, lines == 0 ? 0.0 : (double) chars / lines));
+        sb.append(String.format("Distinct IDs:          %d%n%n", IdDictionary.size()));
+        sb.append(String.format("%-22s %10s %14s%n", "Heap for data+indexes", "MB", "Bytes/line"));
+        sb.append(row("Baseline (Strings)", baselineUsed, lines));
+        sb.append(row("RecordStore", used, lines));
+        if (baselineUsed > 0) {
+            sb.append(String.format("%nRecordStore uses %.0f%% of the baseline heap%n", 100.0 * used / baselineUsed));
+        }
+        return sb.toString();
+    }
+
+    private static String row(String label, long bytes, long lines) {
+        return String.format("%-22s %10.1f %14.0f%n", label, bytes / (1024.0 * 1024),
+            lines == 0 ? 0.0 : (double) bytes / lines);
+    }
+
+    /**
+     * The same files and indexes held the plain way: String lines, and
+     * String keys mapped to boxed line numbers
+     *
+     * @return Everything loaded, kept reachable until it has been measured
+     */
+    private static List<Object> loadBaseline() {
+        List<Object> held = new ArrayList<>();
+        List<List<String>> files = new ArrayList<>();
+        for (String file : DATA_FILES) {
+            List<String> lines;
+            try {
+                lines = new ArrayList<>(Files.readAllLines(Paths.get(file), Charset.defaultCharset()));
+            } catch (IOException e) {
+                lines = new ArrayList<>();
+            }
+            files.add(lines);
+            held.add(lines);
+            held.add(index(lines, 0));
+        }
+        for (int[] index : INDEXED_FIELDS) held.add(index(files.get(index[0]), index[1]));
+        return held;
+    }
+
+    private static Map<String, List<Integer>> index(List<String> lines, int field) {
+        Map<String, List<Integer>> index = new HashMap<>();
+        for (int i = 0; i < lines.size(); i++) {
+            String value = Fields.get(lines.get(i), field);
+            if (value != null) index.computeIfAbsent(value, k -> new ArrayList<>()).add(i);
+        }
+        return index;
+    }
+
+    private static long usedHeap() {
+        Runtime rt = Runtime.getRuntime();
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+            try {
+                Thread.sleep(50);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        return rt.totalMemory() - rt.freeMemory();
+    }
+}
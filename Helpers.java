@@ -1,10 +1,14 @@
 import java.io.*;
 import java.util.*;
+import java.util.function.Predicate;
 
 /**
  * Helpers.java - Shared Utility File
  * Contains static methods for ID generation, validation, and file operations
  * Used by all members to maintain data consistency
+ *
+ * File operations go through RecordStore, which keeps each file resident in
+ * memory after the first read and writes every change back to the same file.
  */
 public class Helpers {
 
@@ -12,52 +16,16 @@ public class Helpers {
     // 1. GENERATE UNIQUE ID
     // ==========================================
     /**
-     * Generates a unique ID with the given prefix by scanning the file
-     * and finding the highest existing number for that prefix.
+     * Generates a unique ID with the given prefix.
+     * Backed by a persistent per-prefix counter (see SequenceAllocator), so the
+     * file is no longer scanned on every insert.
      * 
      * @param prefix The ID prefix (e.g., "STU", "LEC", "AL", "ADM", "MOD", "AS", "CLS")
-     * @param fileName The file to scan (e.g., "users.txt", "modules.txt")
+     * @param fileName The file the ID will be stored in (e.g., "users.txt", "modules.txt")
      * @return The next available unique ID (e.g., "STU06" if "STU05" was highest)
      */
     public static String generateUniqueID(String prefix, String fileName) {
-        int maxNum = 0;
-        List<String> lines = readFromFile(fileName);
-        
-        for (String line : lines) {
-            if (line.trim().isEmpty()) continue;
-            
-            String[] parts = line.split("\\|");
-            if (parts.length > 0) {
-                String currentID = parts[0];
-                
-                // Check if this ID starts with our prefix
-                if (currentID.startsWith(prefix)) {
-                    try {
-                        // Extract the numeric part after the prefix
-                        String numPart = currentID.substring(prefix.length());
-                        int num = Integer.parseInt(numPart);
-                        if (num > maxNum) {
-                            maxNum = num;
-                        }
-                    } catch (NumberFormatException e) {
-                        // Skip if the ID doesn't follow expected format
-                        continue;
-                    }
-                }
-            }
-        }
-        
-        // Generate next ID with proper padding
-        int nextNum = maxNum + 1;
-        
-        // Format based on prefix type
-        if (prefix.equals("MOD")) {
-            // Modules use 3 digits: MOD101, MOD102, etc.
-            return prefix + String.format("%03d", nextNum);
-        } else {
-            // Users and other entities use 2 digits: STU01, LEC01, etc.
-            return prefix + String.format("%02d", nextNum);
-        }
+        return SequenceAllocator.next(prefix, fileName);
     }
 
     // ==========================================
@@ -76,6 +44,21 @@ public class Helpers {
         return email.contains("@") && email.contains(".");
     }
 
+    /**
+     * Checks whether another user already has this email (field 5 of
+     * users.txt, via the email index)
+     *
+     * @param email The email to look up
+     * @param exceptID The user being updated, whose own record is ignored (null on create)
+     * @return true if a different user's record uses the email
+     */
+    public static boolean emailTaken(String email, String exceptID) {
+        for (String line : findRecordsByField("users.txt", 5, email)) {
+            if (Fields.count(line) >= 8 && !Fields.get(line, 0).equals(exceptID)) return true;
+        }
+        return false;
+    }
+
     // ==========================================
     // 3. WRITE TO FILE (Universal Saver)
     // ==========================================
@@ -85,14 +68,27 @@ public class Helpers {
      * 
      * @param fileName The target file name
      * @param data The data string to append (should be pipe-delimited)
+     * @return false if it could not be written
      */
-    public static void writeToFile(String fileName, String data) {
-        try (BufferedWriter writer = new BufferedWriter(new FileWriter(fileName, true))) {
-            writer.write(data);
-            writer.newLine();
-        } catch (IOException e) {
-            System.err.println("Error writing to file " + fileName + ": " + e.getMessage());
-        }
+    public static boolean writeToFile(String fileName, String data) {
+        return RecordStore.of(fileName).append(data);
+    }
+
+    /**
+     * Appends a line unless the file already has a conflicting record,
+     * checked and written as one step (e.g. a duplicate email or enrollment
+     * from two requests at once)
+     *
+     * @param fileName The target file name
+     * @param field Field number of the key to check (indexed)
+     * @param value The key value
+     * @param conflict Whether an existing record with that key blocks the insert
+     * @param data The data string to append
+     * @return false if a conflicting record exists or the line could not be written
+     */
+    public static boolean writeToFileUnless(String fileName, int field, String value,
+                                            Predicate<String> conflict, String data) {
+        return RecordStore.of(fileName).appendUnless(field, value, conflict, data);
     }
 
     // ==========================================
@@ -101,29 +97,14 @@ public class Helpers {
     /**
      * Reads all lines from a file and returns them as a List
      * Returns empty list if file doesn't exist or is empty
+     * The file is only read from disk once; later calls are served from memory
      * 
      * @param fileName The file to read
-     * @return List of all lines in the file
+     * @return List of all lines in the file (a copy the caller may modify)
+     * @see #selectRecords(String, Predicate) for callers that only need some rows
      */
     public static List<String> readFromFile(String fileName) {
-        List<String> lines = new ArrayList<>();
-        File file = new File(fileName);
-        
-        // Return empty list if file doesn't exist
-        if (!file.exists()) {
-            return lines;
-        }
-        
-        try (BufferedReader reader = new BufferedReader(new FileReader(file))) {
-            String line;
-            while ((line = reader.readLine()) != null) {
-                lines.add(line);
-            }
-        } catch (IOException e) {
-            System.err.println("Error reading from file " + fileName + ": " + e.getMessage());
-        }
-        
-        return lines;
+        return RecordStore.of(fileName).lines();
     }
 
     // ==========================================
@@ -137,14 +118,7 @@ public class Helpers {
      * @param lines List of lines to write
      */
     public static void overwriteFile(String fileName, List<String> lines) {
-        try (BufferedWriter writer = new BufferedWriter(new FileWriter(fileName, false))) {
-            for (String line : lines) {
-                writer.write(line);
-                writer.newLine();
-            }
-        } catch (IOException e) {
-            System.err.println("Error overwriting file " + fileName + ": " + e.getMessage());
-        }
+        RecordStore.of(fileName).replaceAll(lines);
     }
 
     // ==========================================
@@ -172,24 +146,7 @@ public class Helpers {
      * @return true if deletion successful, false otherwise
      */
     public static boolean deleteRecord(String fileName, String id) {
-        List<String> lines = readFromFile(fileName);
-        List<String> updatedLines = new ArrayList<>();
-        boolean found = false;
-        
-        for (String line : lines) {
-            String[] parts = line.split("\\|");
-            if (parts.length > 0 && parts[0].equals(id)) {
-                found = true;
-                continue; // Skip this line (delete it)
-            }
-            updatedLines.add(line);
-        }
-        
-        if (found) {
-            overwriteFile(fileName, updatedLines);
-        }
-        
-        return found;
+        return RecordStore.of(fileName).delete(id);
     }
 
     // ==========================================
@@ -204,24 +161,154 @@ public class Helpers {
      * @return true if update successful, false otherwise
      */
     public static boolean updateRecord(String fileName, String id, String newRecord) {
-        List<String> lines = readFromFile(fileName);
-        List<String> updatedLines = new ArrayList<>();
-        boolean found = false;
-        
-        for (String line : lines) {
-            String[] parts = line.split("\\|");
-            if (parts.length > 0 && parts[0].equals(id)) {
-                updatedLines.add(newRecord);
-                found = true;
+        return RecordStore.of(fileName).update(id, newRecord);
+    }
+
+    /**
+     * Updates every record whose given field equals value, using that
+     * field's index (for files whose key is not field 0)
+     * 
+     * @param fileName The file to modify
+     * @param field Zero-based field number to match on
+     * @param value The value the field must equal
+     * @param newRecord The complete new record string (pipe-delimited)
+     * @return true if at least one record was updated
+     */
+    public static boolean updateRecordsByField(String fileName, int field, String value, String newRecord) {
+        return RecordStore.of(fileName).updateBy(field, value, newRecord);
+    }
+
+    // ==========================================
+    // 9. FIND RECORD BY ID
+    // ==========================================
+    /**
+     * Looks up a record by its ID (first field) using the in-memory index
+     * 
+     * @param fileName The file to search
+     * @param id The ID of the record to find
+     * @return The first matching line, or null if none exists
+     */
+    public static String findRecord(String fileName, String id) {
+        return RecordStore.of(fileName).findFirst(id);
+    }
+
+    // ==========================================
+    // 10. FIND RECORDS BY FIELD
+    // ==========================================
+    /**
+     * Looks up records by any field using a maintained in-memory index
+     * (e.g. field 5 = email in users.txt)
+     * 
+     * @param fileName The file to search
+     * @param field Zero-based field number to match on
+     * @param value The value the field must equal
+     * @return All matching lines (empty list if none)
+     */
+    public static List<String> findRecordsByField(String fileName, int field, String value) {
+        return RecordStore.of(fileName).findBy(field, value);
+    }
+
+    // ==========================================
+    // 11. UPSERT RECORDS (Batch Insert/Update)
+    // ==========================================
+    /**
+     * Inserts or updates many records in one durable write.
+     * A record replaces the existing one whose first keyFields fields match,
+     * otherwise it is appended.
+     * 
+     * @param fileName The file to modify
+     * @param records The complete new record strings (pipe-delimited)
+     * @param keyFields How many leading fields identify a record
+     * @return {inserted, updated} counts
+     */
+    public static int[] upsertRecords(String fileName, List<String> records, int keyFields) {
+        return RecordStore.of(fileName).upsertAll(records, keyFields);
+    }
+
+    // ==========================================
+    // 12. WRITE MANY LINES (Bulk Append)
+    // ==========================================
+    /**
+     * Appends many lines to a file with one buffered write
+     * 
+     * @param fileName The target file name
+     * @param lines The pipe-delimited lines to append
+     * @return false if they could not be written (none were added)
+     */
+    public static boolean writeAllToFile(String fileName, List<String> lines) {
+        return RecordStore.of(fileName).appendAll(lines);
+    }
+
+    // ==========================================
+    // 13. PARSE CSV LINE
+    // ==========================================
+    /**
+     * Splits one CSV line, honouring double-quoted fields ("a, b" and "" escapes)
+     * Used by the CSV importers (marks, user rosters)
+     * 
+     * @param line One line of a CSV file
+     * @return The fields, or null if a quoted field is not closed on this line
+     */
+    public static List<String> parseCsvLine(String line) {
+        List<String> fields = new ArrayList<>();
+        StringBuilder field = new StringBuilder();
+        boolean quoted = false;
+
+        for (int i = 0; i < line.length(); i++) {
+            char c = line.charAt(i);
+            if (quoted) {
+                if (c == '"') {
+                    if (i + 1 < line.length() && line.charAt(i + 1) == '"') { field.append('"'); i++; }
+                    else quoted = false;
+                } else {
+                    field.append(c);
+                }
+            } else if (c == '"') {
+                quoted = true;
+            } else if (c == ',') {
+                fields.add(field.toString());
+                field.setLength(0);
             } else {
-                updatedLines.add(line);
+                field.append(c);
             }
         }
-        
-        if (found) {
-            overwriteFile(fileName, updatedLines);
-        }
-        
-        return found;
+        if (quoted) return null;
+        fields.add(field.toString());
+        return fields;
+    }
+
+    // ==========================================
+    // 14. STREAM RECORDS (Filter Without Copying)
+    // ==========================================
+    /**
+     * Passes each line of a file to the visitor in file order, without
+     * copying the file. Return false from the visitor to stop early.
+     * The visitor must not write to the same file.
+     * 
+     * @param fileName The file to scan
+     * @param visitor Called once per line; returns false to stop
+     * @return false if the visitor stopped the scan early
+     */
+    public static boolean forEachRecord(String fileName, Predicate<String> visitor) {
+        return RecordStore.of(fileName).scan(visitor);
+    }
+
+    /**
+     * Returns only the lines that pass the filter
+     * 
+     * @param fileName The file to search
+     * @param filter Test applied to each raw line
+     * @return Matching lines in file order
+     */
+    public static List<String> selectRecords(String fileName, Predicate<String> filter) {
+        return RecordStore.of(fileName).select(filter, Integer.MAX_VALUE);
+    }
+
+    /**
+     * Returns at most limit lines that pass the filter, stopping the scan
+     * as soon as that many are found
+     */
+    public static List<String> selectRecords(String fileName, Predicate<String> filter, int limit) {
+        return RecordStore.of(fileName).select(filter, limit);
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,132 @@
+import java.util.Arrays;
+
+/**
+ * IdDictionary.java - Shared ID Dictionary
+ * Gives every distinct ID (STU01, CLS03, MOD101, ...) one compact int code,
+ * shared by all RecordStores. The ID still appears inside every line that
+ * mentions it; the dictionary adds one String per distinct ID, and the
+ * indexes of every file key on the int instead of keeping a key String (and
+ * a boxed position list) per line. Codes are dense (0, 1, 2, ...) and never
+ * reused; an ID keeps its code for the life of the program even if its
+ * records are deleted.
+ *
+ * Any indexed field value is encoded the same way (e.g. emails when
+ * users.txt is looked up by email), not just record IDs.
+ *
+ * Lookups can hash a range of a line directly, so finding a line's key
+ * does not need a substring.
+ */
+public final class IdDictionary {
+
+    private static final int EMPTY = -1;
+
+    // code -> ID
+    private static String[] ids = new String[1024];
+    private static int size;
+    // Open-addressing hash table of codes, keyed by the ID's String hash
+    private static int[] table = newTable(2048);
+
+    private IdDictionary() {}
+
+    // ==========================================
+    // 1. ENCODE
+    // ==========================================
+    /**
+     * Returns the code of an ID, assigning the next code if it is new
+     */
+    public static int code(String id) {
+        return code(id, 0, id.length());
+    }
+
+    /**
+     * Returns the code of line[from, to), assigning one if it is new.
+     * Only a new ID is copied out of the line.
+     */
+    public static synchronized int code(String line, int from, int to) {
+        int hash = hash(line, from, to);
+        int slot = probe(line, from, to, hash);
+        if (table[slot] != EMPTY) return table[slot];
+
+        if (size == ids.length) ids = Arrays.copyOf(ids, size * 2);
+        ids[size] = line.substring(from, to);
+        table[slot] = size;
+        if (++size * 2 > table.length) rehash();
+        return size - 1;
+    }
+
+    /**
+     * Returns the code of an ID without assigning one, or -1 if it has none
+     */
+    public static int find(String id) {
+        return find(id, 0, id.length());
+    }
+
+    public static synchronized int find(String line, int from, int to) {
+        return table[probe(line, from, to, hash(line, from, to))];
+    }
+
+    // ==========================================
+    // 2. DECODE
+    // ==========================================
+    /**
+     * Returns the ID for a code from code() or find()
+     */
+    public static synchronized String id(int code) {
+        return ids[code];
+    }
+
+    /**
+     * Number of distinct IDs encoded so far
+     */
+    public static synchronized int size() {
+        return size;
+    }
+
+    // ==========================================
+    // HASH TABLE
+    // ==========================================
+    /**
+     * Slot holding line[from, to), or the empty slot where it would go
+     */
+    private static int probe(String line, int from, int to, int hash) {
+        int mask = table.length - 1;
+        int len = to - from;
+        for (int slot = mix(hash) & mask; ; slot = (slot + 1) & mask) {
+            int code = table[slot];
+            if (code == EMPTY) return slot;
+            String id = ids[code];
+            if (id.length() == len && id.regionMatches(0, line, from, len)) return slot;
+        }
+    }
+
+    private static void rehash() {
+        table = newTable(table.length * 2);
+        int mask = table.length - 1;
+        for (int code = 0; code < size; code++) {
+            int slot = mix(ids[code].hashCode()) & mask;
+            while (table[slot] != EMPTY) slot = (slot + 1) & mask;
+            table[slot] = code;
+        }
+    }
+
+    /**
+     * Same value as line.substring(from, to).hashCode()
+     */
+    private static int hash(String line, int from, int to) {
+        int h = 0;
+        for (int i = from; i < to; i++) h = 31 * h + line.charAt(i);
+        return h;
+    }
+
+    // Spread sequential IDs (STU01, STU02, ...) across the table
+    private static int mix(int h) {
+        h *= 0x9E3779B9;
+        return h ^ (h >>> 16);
+    }
+
+    private static int[] newTable(int capacity) {
+        int[] t = new int[capacity];
+        Arrays.fill(t, EMPTY);
+        return t;
+    }
+}
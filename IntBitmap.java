@@ -0,0 +1,308 @@
+import java.util.Arrays;
+
+/**
+ * IntBitmap.java - Compressed Bitmap of ints (Roaring Layout)
+ * A set of non-negative ints (IdDictionary codes of students) split into
+ * chunks of 65536 by the high 16 bits. Each chunk is stored the cheaper way:
+ *
+ *   array container   sorted char[] of the low 16 bits, up to 4096 values
+ *   bitmap container  long[1024] (65536 bits) once a chunk is denser
+ *
+ * so a small cohort costs 2 bytes per member and a large one 1 bit.
+ * and(), or() and andNot() combine two bitmaps chunk by chunk and return a
+ * new bitmap; the inputs are not changed. add() and remove() change one
+ * member in place (used to keep CohortIndex current).
+ */
+public final class IntBitmap {
+
+    // An array container holding more than this is converted to a bitmap
+    private static final int ARRAY_MAX = 4096;
+    private static final int BITMAP_WORDS = 1024;
+
+    // Chunk keys (high 16 bits), ascending
+    private char[] keys = new char[4];
+    // char[] (array container) or long[] (bitmap container) per chunk
+    private Object[] containers = new Object[4];
+    private int[] cardinalities = new int[4];
+    private int size;
+
+    // ==========================================
+    // 1. MEMBERSHIP
+    // ==========================================
+    public void add(int value) {
+        char high = (char) (value >>> 16), low = (char) value;
+        int i = Arrays.binarySearch(keys, 0, size, high);
+        if (i < 0) {
+            i = -i - 1;
+            insertContainer(i, high, new char[4], 0);
+        }
+        Object c = containers[i];
+        if (c instanceof long[]) {
+            long[] bits = (long[]) c;
+            long mask = 1L << low;
+            if ((bits[low >>> 6] & mask) == 0) {
+                bits[low >>> 6] |= mask;
+                cardinalities[i]++;
+            }
+            return;
+        }
+        char[] array = (char[]) c;
+        int n = cardinalities[i];
+        int at = Arrays.binarySearch(array, 0, n, low);
+        if (at >= 0) return;
+        at = -at - 1;
+        if (n == ARRAY_MAX) {
+            long[] bits = toBits(array, n);
+            bits[low >>> 6] |= 1L << low;
+            containers[i] = bits;
+            cardinalities[i] = n + 1;
+            return;
+        }
+        if (n == array.length) array = (char[]) (containers[i] = Arrays.copyOf(array, Math.min(n * 2, ARRAY_MAX)));
+        System.arraycopy(array, at, array, at + 1, n - at);
+        array[at] = low;
+        cardinalities[i] = n + 1;
+    }
+
+    public void remove(int value) {
+        char high = (char) (value >>> 16), low = (char) value;
+        int i = Arrays.binarySearch(keys, 0, size, high);
+        if (i < 0) return;
+        Object c = containers[i];
+        int n = cardinalities[i];
+        if (c instanceof long[]) {
+            long[] bits = (long[]) c;
+            long mask = 1L << low;
+            if ((bits[low >>> 6] & mask) == 0) return;
+            bits[low >>> 6] &= ~mask;
+            cardinalities[i] = --n;
+            // Back to the cheaper array layout once the chunk is sparse again
+            if (n <= ARRAY_MAX) containers[i] = toArray(bits, n);
+        } else {
+            char[] array = (char[]) c;
+            int at = Arrays.binarySearch(array, 0, n, low);
+            if (at < 0) return;
+            System.arraycopy(array, at + 1, array, at, n - at - 1);
+            cardinalities[i] = --n;
+        }
+        if (n == 0) removeContainer(i);
+    }
+
+    public boolean contains(int value) {
+        char high = (char) (value >>> 16), low = (char) value;
+        int i = Arrays.binarySearch(keys, 0, size, high);
+        if (i < 0) return false;
+        Object c = containers[i];
+        if (c instanceof long[]) return (((long[]) c)[low >>> 6] & (1L << low)) != 0;
+        return Arrays.binarySearch((char[]) c, 0, cardinalities[i], low) >= 0;
+    }
+
+    public int cardinality() {
+        int total = 0;
+        for (int i = 0; i < size; i++) total += cardinalities[i];
+        return total;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    public IntBitmap copy() {
+        IntBitmap copy = new IntBitmap();
+        for (int i = 0; i < size; i++) copy.appendCopy(this, i);
+        return copy;
+    }
+
+    /**
+     * @return The members in ascending order
+     */
+    public int[] toArray() {
+        int[] result = new int[cardinality()];
+        int n = 0;
+        for (int i = 0; i < size; i++) {
+            int base = keys[i] << 16;
+            Object c = containers[i];
+            if (c instanceof long[]) {
+                long[] bits = (long[]) c;
+                for (int w = 0; w < BITMAP_WORDS; w++) {
+                    long word = bits[w];
+                    while (word != 0) {
+                        result[n++] = base | (w << 6) | Long.numberOfTrailingZeros(word);
+                        word &= word - 1;
+                    }
+                }
+            } else {
+                char[] array = (char[]) c;
+                for (int k = 0; k < cardinalities[i]; k++) result[n++] = base | array[k];
+            }
+        }
+        return result;
+    }
+
+    // ==========================================
+    // 2. SET OPERATIONS
+    // ==========================================
+    /**
+     * Members of both a and b
+     */
+    public static IntBitmap and(IntBitmap a, IntBitmap b) {
+        IntBitmap out = new IntBitmap();
+        int i = 0, j = 0;
+        while (i < a.size && j < b.size) {
+            if (a.keys[i] < b.keys[j]) i++;
+            else if (a.keys[i] > b.keys[j]) j++;
+            else {
+                out.appendResult(a.keys[i], combine(a.containers[i], a.cardinalities[i],
+                                                     b.containers[j], b.cardinalities[j], AND));
+                i++;
+                j++;
+            }
+        }
+        return out;
+    }
+
+    /**
+     * Members of a or b (or both)
+     */
+    public static IntBitmap or(IntBitmap a, IntBitmap b) {
+        IntBitmap out = new IntBitmap();
+        int i = 0, j = 0;
+        while (i < a.size || j < b.size) {
+            if (j == b.size || (i < a.size && a.keys[i] < b.keys[j])) {
+                out.appendCopy(a, i++);
+            } else if (i == a.size || a.keys[i] > b.keys[j]) {
+                out.appendCopy(b, j++);
+            } else {
+                out.appendResult(a.keys[i], combine(a.containers[i], a.cardinalities[i],
+                                                     b.containers[j], b.cardinalities[j], OR));
+                i++;
+                j++;
+            }
+        }
+        return out;
+    }
+
+    /**
+     * Members of a that are not in b
+     */
+    public static IntBitmap andNot(IntBitmap a, IntBitmap b) {
+        IntBitmap out = new IntBitmap();
+        int j = 0;
+        for (int i = 0; i < a.size; i++) {
+            while (j < b.size && b.keys[j] < a.keys[i]) j++;
+            if (j < b.size && b.keys[j] == a.keys[i]) {
+                out.appendResult(a.keys[i], combine(a.containers[i], a.cardinalities[i],
+                                                     b.containers[j], b.cardinalities[j], AND_NOT));
+            } else {
+                out.appendCopy(a, i);
+            }
+        }
+        return out;
+    }
+
+    // ==========================================
+    // CONTAINER OPERATIONS
+    // ==========================================
+    private static final int AND = 0, OR = 1, AND_NOT = 2;
+
+    /**
+     * Combines two containers of the same chunk. Works on 65536-bit words;
+     * the result is turned back into an array container if it is sparse.
+     *
+     * @return {container, cardinality} or null if the result is empty
+     */
+    private static Object[] combine(Object a, int cardA, Object b, int cardB, int op) {
+        // Sparse AND / AND_NOT with an array on the left: filter the array
+        if (a instanceof char[] && op != OR) {
+            char[] array = (char[]) a;
+            char[] result = new char[cardA];
+            int n = 0;
+            for (int k = 0; k < cardA; k++) {
+                boolean inB = containerContains(b, cardB, array[k]);
+                if (inB == (op == AND)) result[n++] = array[k];
+            }
+            return n == 0 ? null : new Object[]{result, n};
+        }
+        // Two small arrays OR: merge
+        if (op == OR && a instanceof char[] && b instanceof char[] && cardA + cardB <= ARRAY_MAX) {
+            char[] x = (char[]) a, y = (char[]) b, result = new char[cardA + cardB];
+            int i = 0, j = 0, n = 0;
+            while (i < cardA || j < cardB) {
+                if (j == cardB || (i < cardA && x[i] < y[j])) result[n++] = x[i++];
+                else if (i == cardA || x[i] > y[j]) result[n++] = y[j++];
+                else { result[n++] = x[i++]; j++; }
+            }
+            return new Object[]{result, n};
+        }
+
+        long[] bits = a instanceof long[] ? ((long[]) a).clone() : toBits((char[]) a, cardA);
+        long[] other = b instanceof long[] ? (long[]) b : toBits((char[]) b, cardB);
+        int card = 0;
+        for (int w = 0; w < BITMAP_WORDS; w++) {
+            if (op == AND) bits[w] &= other[w];
+            else if (op == OR) bits[w] |= other[w];
+            else bits[w] &= ~other[w];
+            card += Long.bitCount(bits[w]);
+        }
+        if (card == 0) return null;
+        if (card > ARRAY_MAX) return new Object[]{bits, card};
+        return new Object[]{toArray(bits, card), card};
+    }
+
+    private static char[] toArray(long[] bits, int card) {
+        char[] array = new char[card];
+        int n = 0;
+        for (int w = 0; w < BITMAP_WORDS; w++) {
+            long word = bits[w];
+            while (word != 0) {
+                array[n++] = (char) ((w << 6) | Long.numberOfTrailingZeros(word));
+                word &= word - 1;
+            }
+        }
+        return array;
+    }
+
+    private static boolean containerContains(Object c, int card, char low) {
+        if (c instanceof long[]) return (((long[]) c)[low >>> 6] & (1L << low)) != 0;
+        return Arrays.binarySearch((char[]) c, 0, card, low) >= 0;
+    }
+
+    private static long[] toBits(char[] array, int card) {
+        long[] bits = new long[BITMAP_WORDS];
+        for (int k = 0; k < card; k++) bits[array[k] >>> 6] |= 1L << array[k];
+        return bits;
+    }
+
+    private void appendResult(char key, Object[] result) {
+        if (result != null) insertContainer(size, key, result[0], (Integer) result[1]);
+    }
+
+    private void appendCopy(IntBitmap from, int i) {
+        Object c = from.containers[i];
+        Object copy = c instanceof long[] ? ((long[]) c).clone() : Arrays.copyOf((char[]) c, from.cardinalities[i]);
+        insertContainer(size, from.keys[i], copy, from.cardinalities[i]);
+    }
+
+    private void insertContainer(int at, char key, Object container, int cardinality) {
+        if (size == keys.length) {
+            keys = Arrays.copyOf(keys, size * 2);
+            containers = Arrays.copyOf(containers, size * 2);
+            cardinalities = Arrays.copyOf(cardinalities, size * 2);
+        }
+        System.arraycopy(keys, at, keys, at + 1, size - at);
+        System.arraycopy(containers, at, containers, at + 1, size - at);
+        System.arraycopy(cardinalities, at, cardinalities, at + 1, size - at);
+        keys[at] = key;
+        containers[at] = container;
+        cardinalities[at] = cardinality;
+        size++;
+    }
+
+    private void removeContainer(int at) {
+        System.arraycopy(keys, at + 1, keys, at, size - at - 1);
+        System.arraycopy(containers, at + 1, containers, at, size - at - 1);
+        System.arraycopy(cardinalities, at + 1, cardinalities, at, size - at - 1);
+        size--;
+        containers[size] = null;
+    }
+}
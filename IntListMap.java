@@ -0,0 +1,248 @@
+import java.util.Arrays;
+
+/**
+ * IntListMap.java - Primitive int -> int List Map
+ * A multimap from int keys to lists of int values, with no boxing: keys sit
+ * in an open-addressing table (linear probing) and each key's values in its
+ * own growable int[]. Used for RecordStore's indexes (ID code -> slot
+ * positions), where a HashMap<Integer, List<Integer>> would cost an Integer
+ * object per key and per value.
+ *
+ * Keys must be >= 0 (IdDictionary codes); -1 marks an empty table slot.
+ * Lookups return a slot index, read with sizeAt() / valueAt(), so reading a
+ * key's values needs no copy.
+ */
+public final class IntListMap {
+
+    private static final int EMPTY = -1;
+
+    private int[] keys;
+    private int[][] values;
+    private int[] sizes;
+    private int size;
+
+    public IntListMap() {
+        this(16);
+    }
+
+    public IntListMap(int expectedKeys) {
+        int capacity = Integer.highestOneBit(Math.max(expectedKeys, 4) * 2 - 1) << 1;
+        keys = new int[capacity];
+        Arrays.fill(keys, EMPTY);
+        values = new int[capacity][];
+        sizes = new int[capacity];
+    }
+
+    // ==========================================
+    // 1. LOOKUP
+    // ==========================================
+    /**
+     * @return The slot holding key, or -1 if the key is absent
+     */
+    public int indexOf(int key) {
+        if (key < 0) return -1;
+        int slot = probe(key);
+        return keys[slot] == EMPTY ? -1 : slot;
+    }
+
+    public boolean containsKey(int key) {
+        return indexOf(key) >= 0;
+    }
+
+    /**
+     * Number of values stored under the key at a slot from indexOf()
+     */
+    public int sizeAt(int index) {
+        return sizes[index];
+    }
+
+    /**
+     * The i-th value under the key at a slot from indexOf()
+     */
+    public int valueAt(int index, int i) {
+        return values[index][i];
+    }
+
+    /**
+     * @return A copy of the key's values (empty if the key is absent)
+     */
+    public int[] get(int key) {
+        int index = indexOf(key);
+        return index < 0 ? new int[0] : Arrays.copyOf(values[index], sizes[index]);
+    }
+
+    /**
+     * Number of keys
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * @return Every key, in table order
+     */
+    public int[] keys() {
+        int[] result = new int[size];
+        int n = 0;
+        for (int key : keys) {
+            if (key != EMPTY) result[n++] = key;
+        }
+        return result;
+    }
+
+    // ==========================================
+    // 2. UPDATE
+    // ==========================================
+    /**
+     * Appends a value to the key's list
+     */
+    public void add(int key, int value) {
+        int slot = slotFor(key);
+        int[] list = values[slot];
+        int n = sizes[slot];
+        if (n == list.length) list = values[slot] = Arrays.copyOf(list, n * 2);
+        list[n] = value;
+        sizes[slot] = n + 1;
+    }
+
+    /**
+     * Inserts a value into the key's list, keeping it ascending and free of
+     * duplicates (appending is O(1) when values arrive in order)
+     */
+    public void addSorted(int key, int value) {
+        int slot = slotFor(key);
+        int[] list = values[slot];
+        int n = sizes[slot];
+        if (n > 0 && list[n - 1] >= value) {
+            int at = Arrays.binarySearch(list, 0, n, value);
+            if (at >= 0) return;
+            at = -at - 1;
+            if (n == list.length) list = values[slot] = Arrays.copyOf(list, n * 2);
+            System.arraycopy(list, at, list, at + 1, n - at);
+            list[at] = value;
+        } else {
+            if (n == list.length) list = values[slot] = Arrays.copyOf(list, n * 2);
+            list[n] = value;
+        }
+        sizes[slot] = n + 1;
+    }
+
+    /**
+     * Removes one occurrence of value from the key's list, and the key
+     * itself once its list is empty
+     *
+     * @return true if the value was found
+     */
+    public boolean remove(int key, int value) {
+        int slot = indexOf(key);
+        if (slot < 0) return false;
+        int[] list = values[slot];
+        int n = sizes[slot];
+        int at = -1;
+        for (int i = n - 1; i >= 0; i--) {
+            if (list[i] == value) { at = i; break; }
+        }
+        if (at < 0) return false;
+        System.arraycopy(list, at + 1, list, at, n - at - 1);
+        sizes[slot] = n - 1;
+        if (n == 1) removeSlot(slot);
+        return true;
+    }
+
+    /**
+     * Same as remove() for a list kept with addSorted(), using binary search
+     */
+    public boolean removeSorted(int key, int value) {
+        int slot = indexOf(key);
+        if (slot < 0) return false;
+        int n = sizes[slot];
+        int at = Arrays.binarySearch(values[slot], 0, n, value);
+        if (at < 0) return false;
+        System.arraycopy(values[slot], at + 1, values[slot], at, n - at - 1);
+        sizes[slot] = n - 1;
+        if (n == 1) removeSlot(slot);
+        return true;
+    }
+
+    public void clear() {
+        Arrays.fill(keys, EMPTY);
+        Arrays.fill(values, null);
+        Arrays.fill(sizes, 0);
+        size = 0;
+    }
+
+    // ==========================================
+    // HASH TABLE
+    // ==========================================
+    private int probe(int key) {
+        int mask = keys.length - 1;
+        int slot = mix(key) & mask;
+        while (keys[slot] != EMPTY && keys[slot] != key) slot = (slot + 1) & mask;
+        return slot;
+    }
+
+    /**
+     * Slot for key, inserting it with an empty list if absent
+     */
+    private int slotFor(int key) {
+        if (key < 0) throw new IllegalArgumentException("Negative key " + key);
+        int slot = probe(key);
+        if (keys[slot] == EMPTY) {
+            if ((size + 1) * 2 > keys.length) {
+                rehash(keys.length * 2);
+                slot = probe(key);
+            }
+            keys[slot] = key;
+            values[slot] = new int[1];
+            size++;
+        }
+        return slot;
+    }
+
+    /**
+     * Linear-probing delete: shift later entries of the same probe run back
+     * so no tombstones are needed
+     */
+    private void removeSlot(int slot) {
+        int mask = keys.length - 1;
+        keys[slot] = EMPTY;
+        values[slot] = null;
+        sizes[slot] = 0;
+        size--;
+        for (int next = (slot + 1) & mask; keys[next] != EMPTY; next = (next + 1) & mask) {
+            int home = mix(keys[next]) & mask;
+            // Move next into the hole if the hole lies on its probe path
+            if (((next - home) & mask) >= ((next - slot) & mask)) {
+                keys[slot] = keys[next];
+                values[slot] = values[next];
+                sizes[slot] = sizes[next];
+                keys[next] = EMPTY;
+                values[next] = null;
+                sizes[next] = 0;
+                slot = next;
+            }
+        }
+    }
+
+    private void rehash(int capacity) {
+        int[] oldKeys = keys;
+        int[][] oldValues = values;
+        int[] oldSizes = sizes;
+        keys = new int[capacity];
+        Arrays.fill(keys, EMPTY);
+        values = new int[capacity][];
+        sizes = new int[capacity];
+        for (int i = 0; i < oldKeys.length; i++) {
+            if (oldKeys[i] == EMPTY) continue;
+            int slot = probe(oldKeys[i]);
+            keys[slot] = oldKeys[i];
+            values[slot] = oldValues[i];
+            sizes[slot] = oldSizes[i];
+        }
+    }
+
+    static int mix(int h) {
+        h *= 0x9E3779B9;
+        return h ^ (h >>> 16);
+    }
+}
@@ -0,0 +1,116 @@
+import java.util.Arrays;
+
+/**
+ * IntSet.java - Primitive int Set
+ * Open-addressing (linear probing) set of non-negative ints such as
+ * IdDictionary codes, without the Integer box and HashMap node a
+ * HashSet<Integer> spends on every member.
+ */
+public final class IntSet {
+
+    private static final int EMPTY = -1;
+
+    private int[] table;
+    private int size;
+
+    public IntSet() {
+        this(16);
+    }
+
+    public IntSet(int expected) {
+        table = new int[Integer.highestOneBit(Math.max(expected, 4) * 2 - 1) << 1];
+        Arrays.fill(table, EMPTY);
+    }
+
+    // ==========================================
+    // 1. MEMBERSHIP
+    // ==========================================
+    public boolean contains(int value) {
+        return value >= 0 && table[probe(value)] != EMPTY;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * @return The members in no particular order
+     */
+    public int[] toArray() {
+        int[] result = new int[size];
+        int n = 0;
+        for (int v : table) {
+            if (v != EMPTY) result[n++] = v;
+        }
+        return result;
+    }
+
+    // ==========================================
+    // 2. UPDATE
+    // ==========================================
+    /**
+     * @return true if the value was not already a member
+     */
+    public boolean add(int value) {
+        if (value < 0) throw new IllegalArgumentException("Negative value " + value);
+        int slot = probe(value);
+        if (table[slot] != EMPTY) return false;
+        if ((size + 1) * 2 > table.length) {
+            rehash(table.length * 2);
+            slot = probe(value);
+        }
+        table[slot] = value;
+        size++;
+        return true;
+    }
+
+    /**
+     * @return true if the value was a member
+     */
+    public boolean remove(int value) {
+        if (value < 0) return false;
+        int mask = table.length - 1;
+        int slot = probe(value);
+        if (table[slot] == EMPTY) return false;
+        table[slot] = EMPTY;
+        size--;
+        // Shift later members of the probe run back into the hole
+        for (int next = (slot + 1) & mask; table[next] != EMPTY; next = (next + 1) & mask) {
+            int home = IntListMap.mix(table[next]) & mask;
+            if (((next - home) & mask) >= ((next - slot) & mask)) {
+                table[slot] = table[next];
+                table[next] = EMPTY;
+                slot = next;
+            }
+        }
+        return true;
+    }
+
+    public void clear() {
+        Arrays.fill(table, EMPTY);
+        size = 0;
+    }
+
+    // ==========================================
+    // HASH TABLE
+    // ==========================================
+    private int probe(int value) {
+        int mask = table.length - 1;
+        int slot = IntListMap.mix(value) & mask;
+        while (table[slot] != EMPTY && table[slot] != value) slot = (slot + 1) & mask;
+        return slot;
+    }
+
+    private void rehash(int capacity) {
+        int[] old = table;
+        table = new int[capacity];
+        Arrays.fill(table, EMPTY);
+        for (int v : old) {
+            if (v != EMPTY) table[probe(v)] = v;
+        }
+    }
+}
@@ -1,4 +1,5 @@
 import java.util.*;
+import java.util.regex.Pattern;
 
 /**
  * Lecturer.java - Lecturer Role Logic
@@ -22,14 +23,13 @@ public class Lecturer {
     // LOAD PROFILE
     // ==========================================
     private void loadCurrentProfile() {
-        for (String line : Helpers.readFromFile("users.txt")) {
-            String[] d = line.split("\\|");
-            if (d.length >= 8 && d[0].equals(this.userID)) {
-                this.password = d[2]; this.name   = d[3];
-                this.gender   = d[4]; this.email  = d[5];
-                this.phone    = d[6]; this.age    = d[7];
-                break;
-            }
+        String line = Helpers.findRecord("users.txt", this.userID);
+        if (line == null) return;
+        String[] d = Fields.split(line);
+        if (d.length >= 8) {
+            this.password = d[2]; this.name   = d[3];
+            this.gender   = d[4]; this.email  = d[5];
+            this.phone    = d[6]; this.age    = d[7];
         }
     }
 
@@ -41,20 +41,14 @@ public class Lecturer {
         if (newPhone == null || newPhone.trim().isEmpty()) return false;
         if (newAge   == null || newAge.trim().isEmpty())   return false;
         if (!Helpers.validateEmail(newEmail))              return false;
+        if (Helpers.emailTaken(newEmail, this.userID))     return false;
 
-        List<String> users = Helpers.readFromFile("users.txt");
-        boolean updated = false;
-        for (int i = 0; i < users.size(); i++) {
-            String[] d = users.get(i).split("\\|");
-            if (d.length >= 8 && d[0].equals(this.userID)) {
-                d[3] = newName; d[5] = newEmail; d[6] = newPhone; d[7] = newAge;
-                users.set(i, String.join("|", d));
-                updated = true;
-                break;
-            }
-        }
-        if (updated) {
-            Helpers.overwriteFile("users.txt", users);
+        String line = Helpers.findRecord("users.txt", this.userID);
+        if (line == null) return false;
+        String[] d = Fields.split(line);
+        if (d.length < 8) return false;
+        d[3] = newName; d[5] = newEmail; d[6] = newPhone; d[7] = newAge;
+        if (Helpers.updateRecord("users.txt", this.userID, String.join("|", d))) {
             this.name = newName; this.email = newEmail;
             this.phone = newPhone; this.age = newAge;
             return true;
@@ -76,7 +70,7 @@ public class Lecturer {
 
         String asID = Helpers.generateUniqueID("AS", "assessments.txt");
         // Format: assessmentID|moduleID|name|weightage
-        Helpers.writeToFile("assessments.txt", asID + "|" + moduleID + "|" + asName + "|" + weightage);
+        if (!Helpers.writeToFile("assessments.txt", asID + "|" + moduleID + "|" + asName + "|" + weightage)) return null;
         return asID;
     }
 
@@ -85,26 +79,24 @@ public class Lecturer {
     // ==========================================
     public List<String> getMyAssignedModules() {
         List<String> assigned = new ArrayList<>();
-        for (String line : Helpers.readFromFile("assignments.txt")) {
-            String[] d = line.split("\\|");
-            // Format: leaderID|lecturerID|moduleID
-            if (d.length >= 3 && d[1].equals(this.userID)) {
-                assigned.add(d[2]);
-            }
+        // Format: leaderID|lecturerID|moduleID (lecturerID index)
+        for (String line : Helpers.findRecordsByField("assignments.txt", 1, this.userID)) {
+            String moduleID = Fields.get(line, 2);
+            if (moduleID != null) assigned.add(moduleID);
         }
         return assigned;
     }
 
     // Get full module details for assigned modules
     public List<String[]> getMyAssignedModuleDetails() {
-        List<String> myModuleIDs = getMyAssignedModules();
+        Set<String> myModuleIDs = new HashSet<>(getMyAssignedModules());
         List<String[]> details = new ArrayList<>();
-        for (String line : Helpers.readFromFile("modules.txt")) {
-            String[] d = line.split("\\|");
-            if (d.length >= 2 && myModuleIDs.contains(d[0])) {
-                details.add(d);
+        Helpers.forEachRecord("modules.txt", line -> {
+            if (Fields.count(line) >= 2 && myModuleIDs.contains(Fields.get(line, 0))) {
+                details.add(Fields.split(line));
             }
-        }
+            return true;
+        });
         return details;
     }
 
@@ -112,29 +104,124 @@ public class Lecturer {
     // 4. INPUT MARKS & FEEDBACK
     // ==========================================
     public boolean inputMarks(String stuID, String modID, String asID, String marks, String feedback) {
-        if (stuID == null || stuID.trim().isEmpty()) return false;
-        if (modID == null || modID.trim().isEmpty()) return false;
-        if (asID  == null || asID.trim().isEmpty())  return false;
-        if (marks == null || marks.trim().isEmpty()) return false;
-        if (feedback == null) feedback = "";
-
-        // Validate marks is numeric
-        try { Double.parseDouble(marks); }
-        catch (NumberFormatException e) { return false; }
-
-        // Check if record already exists — update if so
-        List<String> results = Helpers.readFromFile("results.txt");
-        for (int i = 0; i < results.size(); i++) {
-            String[] d = results.get(i).split("\\|");
-            if (d.length >= 3 && d[0].equals(stuID) && d[1].equals(modID) && d[2].equals(asID)) {
-                results.set(i, stuID + "|" + modID + "|" + asID + "|" + marks + "|" + feedback);
-                Helpers.overwriteFile("results.txt", results);
-                return true;
+        String[] row = {stuID, modID, asID, marks, feedback};
+        return inputMarksBatch(Collections.singletonList(row)).isEmpty();
+    }
+
+    // ==========================================
+    // 4a. MARK VALIDATION (Every Entry Path)
+    // ==========================================
+    /**
+     * Checks rows of marks for this lecturer. inputMarks, inputMarksBatch
+     * and MarksImporter all use it, so every entry path applies the same rules:
+     *  - student, module, assessment and marks are present, and no field
+     *    contains '|' or a line break (they would corrupt results.txt)
+     *  - marks are a plain decimal number between 0 and 100
+     *  - the module is assigned to this lecturer
+     *  - the assessment exists and belongs to that module
+     *  - the student is enrolled in a class of that module
+     * Lookups are cached, so use one checker for a whole batch.
+     */
+    // Plain decimals only: Double.parseDouble would also take "NaN", "1e2", "50d"
+    private static final Pattern MARKS = Pattern.compile("\\d+(\\.\\d+)?");
+
+    public class MarkChecker {
+        private final Set<String> myModules = new HashSet<>(getMyAssignedModules());
+        // Lookup caches, filled on first use of each module/assessment
+        // (enrolled students are held as IdDictionary codes)
+        private final Map<String, String> moduleOfAssessment = new HashMap<>();
+        private final Map<String, IntSet> enrolledByModule = new HashMap<>();
+
+        /**
+         * @return An error message, or null if the row can be saved
+         */
+        public String check(String stuID, String modID, String asID, String marks, String feedback) {
+            if (stuID.isEmpty() || modID.isEmpty() || asID.isEmpty() || marks.isEmpty()) {
+                return "student, module, assessment and marks are required";
+            }
+            for (String field : new String[]{stuID, modID, asID, marks, feedback}) {
+                if (field.contains("|") || field.contains("\n") || field.contains("\r")) {
+                    return "fields cannot contain '|' or line breaks";
+                }
+            }
+            if (!MARKS.matcher(marks).matches()) return "marks '" + marks + "' is not a number";
+            if (Double.parseDouble(marks) > 100) return "marks must be between 0 and 100";
+            if (!myModules.contains(modID)) return "module " + modID + " is not assigned to you";
+
+            String asModule = moduleOfAssessment.computeIfAbsent(asID, id -> {
+                String line = Helpers.findRecord("assessments.txt", id);
+                if (line == null) return "";
+                return Fields.count(line) >= 4 ? Fields.get(line, 1) : "";
+            });
+            if (asModule.isEmpty()) return "assessment " + asID + " does not exist";
+            if (!asModule.equals(modID)) return "assessment " + asID + " belongs to " + asModule + ", not " + modID;
+
+            IntSet enrolled = enrolledByModule.computeIfAbsent(modID, id -> {
+                IntSet codes = new IntSet();
+                for (String student : getStudentsForModule(id)) codes.add(IdDictionary.code(student));
+                return codes;
+            });
+            if (!enrolled.contains(IdDictionary.find(stuID))) return "student " + stuID + " is not enrolled in " + modID;
+            return null;
+        }
+    }
+
+    public MarkChecker markChecker() {
+        return new MarkChecker();
+    }
+
+    // ==========================================
+    // 4b. INPUT MARKS IN BULK
+    // ==========================================
+    /**
+     * Validates a whole batch of marks (see MarkChecker) and, only if every
+     * row is valid, applies them to results.txt in one write.
+     * Row format: {studentID, moduleID, assessmentID, marks, feedback}
+     *
+     * @return Error messages ("Row 3: ..."); empty list means the batch was saved
+     */
+    public List<String> inputMarksBatch(List<String[]> rows) {
+        List<String> errors  = new ArrayList<>();
+        List<String> records = new ArrayList<>(rows.size());
+        MarkChecker checker = markChecker();
+
+        for (int i = 0; i < rows.size(); i++) {
+            String[] r = rows.get(i);
+            String rowNo = "Row " + (i + 1) + ": ";
+            if (r.length < 4) { errors.add(rowNo + "expected studentID, moduleID, assessmentID, marks"); continue; }
+            String stuID = r[0] == null ? "" : r[0].trim();
+            String modID = r[1] == null ? "" : r[1].trim();
+            String asID  = r[2] == null ? "" : r[2].trim();
+            String marks = r[3] == null ? "" : r[3].trim();
+            String feedback = r.length > 4 && r[4] != null ? r[4].trim() : "";
+
+            String error = checker.check(stuID, modID, asID, marks, feedback);
+            if (error != null) { errors.add(rowNo + error); continue; }
+            records.add(stuID + "|" + modID + "|" + asID + "|" + marks + "|" + feedback);
+        }
+
+        if (errors.isEmpty() && !records.isEmpty()) {
+            Helpers.upsertRecords("results.txt", records, 3);
+        }
+        return errors;
+    }
+
+    // ==========================================
+    // 4c. IMPORT MARKS FROM CSV
+    // ==========================================
+    public MarksImporter.Report importMarksCsv(String csvFile) throws java.io.IOException {
+        return new MarksImporter(this).importCsv(csvFile);
+    }
+
+    // Students enrolled in any class of a module (classes.txt -> enrollments.txt)
+    public List<String> getStudentsForModule(String moduleID) {
+        Set<String> students = new LinkedHashSet<>();
+        for (String[] cls : RecordJoin.select("classes.txt", 2, moduleID)) {
+            for (String[] e : RecordJoin.select("enrollments.txt", 1, cls[0])) {
+                if (e.length >= 2) students.add(e[0]);
             }
         }
-        // New record
-        Helpers.writeToFile("results.txt", stuID + "|" + modID + "|" + asID + "|" + marks + "|" + feedback);
-        return true;
+        return new ArrayList<>(students);
     }
 
     // ==========================================
@@ -142,12 +229,10 @@ public class Lecturer {
     // ==========================================
     public List<String[]> getLecturerComments() {
         List<String[]> myComments = new ArrayList<>();
-        for (String line : Helpers.readFromFile("comments.txt")) {
-            String[] d = line.split("\\|");
-            // Format: studentID|lecturerID|comment
-            if (d.length >= 3 && d[1].equals(this.userID)) {
-                myComments.add(new String[]{d[0], d[2]});
-            }
+        // Format: studentID|lecturerID|comment
+        for (String line : Helpers.selectRecords("comments.txt",
+                line -> Fields.equals(line, 1, this.userID) && Fields.count(line) >= 3)) {
+            myComments.add(new String[]{Fields.get(line, 0), Fields.get(line, 2)});
         }
         return myComments;
     }
@@ -157,16 +242,23 @@ public class Lecturer {
     // ==========================================
     public List<String[]> getAssessmentsForModule(String moduleID) {
         List<String[]> list = new ArrayList<>();
-        for (String line : Helpers.readFromFile("assessments.txt")) {
-            String[] d = line.split("\\|");
+        for (String line : Helpers.findRecordsByField("assessments.txt", 1, moduleID)) {
+            String[] d = Fields.split(line);
             // Format: assessmentID|moduleID|name|weightage
-            if (d.length >= 4 && d[1].equals(moduleID)) {
-                list.add(d);
-            }
+            if (d.length >= 4) list.add(d);
         }
         return list;
     }
 
+    // ==========================================
+    // 7. COHORT QUERIES (Bitmap Index)
+    // ==========================================
+    // A cohort expression over my modules' classes and assessments,
+    // e.g. "CLS03 - AS05" (see CohortIndex.query)
+    public List<String> queryCohort(String expression) {
+        return CohortIndex.get().query(expression, new HashSet<>(getMyAssignedModules()));
+    }
+
     // ==========================================
     // GETTERS
     // ==========================================
@@ -1,13 +1,15 @@
 import javax.swing.*;
 import javax.swing.table.DefaultTableModel;
 import java.awt.*;
+import java.util.ArrayList;
+import java.util.List;
 
 /**
  * LecturerGUI.java - Lecturer Dashboard
  * Covers all spec requirements:
  *  - Edit personal profile
  *  - Design assessment types
- *  - Key-in assessment marks
+ *  - Key-in assessment marks (one student at a time or a whole cohort in bulk)
  *  - Provide feedback
  */
 public class LecturerGUI extends JFrame {
@@ -15,10 +17,13 @@ public class LecturerGUI extends JFrame {
     private String lecturerID;
     private JPanel mainPanel;
     private CardLayout cardLayout;
+    // Loads combos and tables off the EDT; cancelled when leaving a card
+    private AsyncLoader loader;
 
     public LecturerGUI(String id, String name) {
         this.lecturerID = id;
         this.logic = new Lecturer(id);
+        this.loader = new AsyncLoader(this);
 
         setTitle("AFS Lecturer System - " + name);
         setSize(850, 600);
@@ -35,6 +40,10 @@ public class LecturerGUI extends JFrame {
         mainPanel.add(createCommentsPanel(),  "Comments");
 
         add(mainPanel);
+
+        // Off the EDT: the bus loads its stores on first use
+        commentSubscription = EventBus.subscribeAsync(EventBus.CommentEvent.class,
+            SwingUtilities::invokeLater, this::applyCommentChange);
     }
 
     // ==========================================
@@ -52,13 +61,19 @@ public class LecturerGUI extends JFrame {
 
         btnProfile.addActionListener(e -> {
             refreshProfilePanel();
-            cardLayout.show(mainPanel, "Profile");
+            showCard("Profile");
+        });
+        btnDesign.addActionListener(e -> {
+            showCard("Design");
+            refreshModuleCombo(designModuleCombo, "designModules");
+        });
+        btnMarks.addActionListener(e -> {
+            showCard("Marks");
+            refreshModuleCombo(marksModuleCombo, "marksModules");
         });
-        btnDesign.addActionListener(e -> cardLayout.show(mainPanel, "Design"));
-        btnMarks.addActionListener(e -> cardLayout.show(mainPanel, "Marks"));
         btnComments.addActionListener(e -> {
+            showCard("Comments");
             refreshCommentsTable();
-            cardLayout.show(mainPanel, "Comments");
         });
         btnLogout.addActionListener(e -> logout());
 
@@ -71,6 +86,12 @@ public class LecturerGUI extends JFrame {
         return panel;
     }
 
+    // Switching cards drops any load still running for the old one
+    private void showCard(String card) {
+        loader.cancelAll();
+        cardLayout.show(mainPanel, card);
+    }
+
     // ==========================================
     // UPDATE PROFILE PANEL
     // ==========================================
@@ -102,13 +123,13 @@ public class LecturerGUI extends JFrame {
             if (logic.updateProfile(pfName.getText().trim(), pfEmail.getText().trim(),
                                     pfPhone.getText().trim(), pfAge.getText().trim())) {
                 JOptionPane.showMessageDialog(this, "Profile updated successfully!");
-                cardLayout.show(mainPanel, "Dashboard");
+                showCard("Dashboard");
             } else {
-                JOptionPane.showMessageDialog(this, "Update failed. Check email format.", "Error", JOptionPane.ERROR_MESSAGE);
+                JOptionPane.showMessageDialog(this, "Update failed. Check the email is valid and not used by another user.", "Error", JOptionPane.ERROR_MESSAGE);
             }
         });
 
-        btnBack.addActionListener(e -> cardLayout.show(mainPanel, "Dashboard"));
+        btnBack.addActionListener(e -> showCard("Dashboard"));
         p.add(btnBack); p.add(btnSave);
         return p;
     }
@@ -123,17 +144,16 @@ public class LecturerGUI extends JFrame {
     // ==========================================
     // DESIGN ASSESSMENT PANEL
     // ==========================================
+    private JComboBox<String> designModuleCombo;
+
     private JPanel createDesignPanel() {
         JPanel p = new JPanel(new GridLayout(5, 2, 10, 10));
         p.setBorder(BorderFactory.createEmptyBorder(30, 100, 30, 100));
 
         JTextField tName       = new JTextField();
         JTextField tWeightage  = new JTextField();
-        // Module selector — populated dynamically
-        JComboBox<String> cmbModule = new JComboBox<>();
-
-        // Populate module combo on panel creation (will be refreshed on show)
-        refreshModuleCombo(cmbModule);
+        // Module selector — populated in the background each time the panel is shown
+        JComboBox<String> cmbModule = designModuleCombo = new JComboBox<>();
 
         p.add(new JLabel("Module:"));    p.add(cmbModule);
         p.add(new JLabel("Assessment Name:")); p.add(tName);
@@ -156,52 +176,58 @@ public class LecturerGUI extends JFrame {
             if (asID != null) {
                 tName.setText(""); tWeightage.setText("");
                 JOptionPane.showMessageDialog(this, "Assessment saved! ID: " + asID);
-                cardLayout.show(mainPanel, "Dashboard");
+                showCard("Dashboard");
             } else {
                 JOptionPane.showMessageDialog(this,
                     "Failed. Ensure weightage is a number.", "Error", JOptionPane.ERROR_MESSAGE);
             }
         });
 
-        btnBack.addActionListener(e -> {
-            refreshModuleCombo(cmbModule);
-            cardLayout.show(mainPanel, "Dashboard");
-        });
+        btnBack.addActionListener(e -> showCard("Dashboard"));
 
         p.add(btnBack); p.add(btnSave);
         return p;
     }
 
-    private void refreshModuleCombo(JComboBox<String> combo) {
-        combo.removeAllItems();
-        for (String[] m : logic.getMyAssignedModuleDetails()) {
-            combo.addItem(m[0] + " - " + (m.length > 1 ? m[1] : ""));
-        }
+    private void refreshModuleCombo(JComboBox<String> combo, String key) {
+        loader.load(key, "Loading modules...", logic::getMyAssignedModuleDetails, modules -> {
+            combo.removeAllItems();
+            for (String[] m : modules) {
+                combo.addItem(m[0] + " - " + (m.length > 1 ? m[1] : ""));
+            }
+        });
     }
 
     // ==========================================
     // INPUT MARKS & FEEDBACK PANEL
     // ==========================================
+    private JComboBox<String> marksModuleCombo;
+
     private JPanel createMarksPanel() {
         JPanel p = new JPanel(new GridLayout(8, 2, 5, 5));
         p.setBorder(BorderFactory.createEmptyBorder(20, 80, 20, 80));
 
         JTextField  tStuID    = new JTextField();
-        JComboBox<String> cmbModule = new JComboBox<>();
+        JComboBox<String> cmbModule = marksModuleCombo = new JComboBox<>();
         JComboBox<String> cmbAssess = new JComboBox<>();
         JTextField  tMarks    = new JTextField();
         JTextArea   tFeedback = new JTextArea(3, 20);
 
-        refreshModuleCombo(cmbModule);
-
-        // When module changes, reload assessments
+        // When module changes, reload assessments (a newer selection
+        // cancels the load for the previous one)
         cmbModule.addActionListener(e -> {
             cmbAssess.removeAllItems();
             if (cmbModule.getItemCount() > 0 && cmbModule.getSelectedItem() != null) {
                 String modID = ((String) cmbModule.getSelectedItem()).split(" - ")[0];
-                for (String[] a : logic.getAssessmentsForModule(modID)) {
-                    cmbAssess.addItem(a[0] + " - " + a[2]); // asID - name
-                }
+                loader.load("assessments", "Loading assessments...",
+                    () -> logic.getAssessmentsForModule(modID), assessments -> {
+                        cmbAssess.removeAllItems();
+                        for (String[] a : assessments) {
+                            cmbAssess.addItem(a[0] + " - " + a[2]); // asID - name
+                        }
+                    });
+            } else {
+                loader.cancel("assessments");
             }
         });
 
@@ -212,8 +238,23 @@ public class LecturerGUI extends JFrame {
         p.add(new JLabel("Feedback:"));      p.add(new JScrollPane(tFeedback));
 
         JButton btnSubmit = new JButton("Submit");
+        JButton btnBulk   = new JButton("Bulk Entry (Whole Cohort)");
+        JButton btnImport = new JButton("Import CSV...");
         JButton btnBack   = new JButton("Back");
 
+        btnBulk.addActionListener(e -> {
+            if (cmbModule.getItemCount() == 0) {
+                JOptionPane.showMessageDialog(this, "No modules assigned to you."); return;
+            }
+            if (cmbAssess.getItemCount() == 0) {
+                JOptionPane.showMessageDialog(this, "No assessments for this module yet. Design one first."); return;
+            }
+            String modID = ((String) cmbModule.getSelectedItem()).split(" - ")[0];
+            String asID  = ((String) cmbAssess.getSelectedItem()).split(" - ")[0];
+            loader.load("cohort", "Loading enrolled students...",
+                () -> logic.getStudentsForModule(modID), students -> showBulkEntryDialog(modID, asID, students));
+        });
+
         btnSubmit.addActionListener(e -> {
             if (cmbModule.getItemCount() == 0) {
                 JOptionPane.showMessageDialog(this, "No modules assigned to you."); return;
@@ -225,39 +266,107 @@ public class LecturerGUI extends JFrame {
                 JOptionPane.showMessageDialog(this, "Student ID and Marks are required.",
                     "Error", JOptionPane.WARNING_MESSAGE); return;
             }
-            try {
-                double m = Double.parseDouble(tMarks.getText().trim());
-                if (m < 0 || m > 100) { JOptionPane.showMessageDialog(this, "Marks must be between 0 and 100."); return; }
-            } catch (NumberFormatException ex) {
-                JOptionPane.showMessageDialog(this, "Marks must be a valid number.", "Error", JOptionPane.WARNING_MESSAGE); return;
-            }
 
             String modID  = ((String) cmbModule.getSelectedItem()).split(" - ")[0];
             String asID   = ((String) cmbAssess.getSelectedItem()).split(" - ")[0];
 
+            // Same checks inputMarks applies, run first so the reason can be shown
+            String error = logic.markChecker().check(tStuID.getText().trim(), modID, asID,
+                                                     tMarks.getText().trim(), tFeedback.getText().trim());
+            if (error != null) {
+                JOptionPane.showMessageDialog(this, "Cannot submit: " + error + ".", "Error", JOptionPane.WARNING_MESSAGE); return;
+            }
+
             if (logic.inputMarks(tStuID.getText().trim(), modID, asID,
                                  tMarks.getText().trim(), tFeedback.getText().trim())) {
                 tStuID.setText(""); tMarks.setText(""); tFeedback.setText("");
                 JOptionPane.showMessageDialog(this, "Marks submitted!");
-                cardLayout.show(mainPanel, "Dashboard");
+                showCard("Dashboard");
             } else {
                 JOptionPane.showMessageDialog(this, "Submission failed.", "Error", JOptionPane.ERROR_MESSAGE);
             }
         });
 
-        btnBack.addActionListener(e -> {
-            refreshModuleCombo(cmbModule);
-            cardLayout.show(mainPanel, "Dashboard");
-        });
+        btnBack.addActionListener(e -> showCard("Dashboard"));
+
+        btnImport.addActionListener(e -> showImportCsvDialog());
 
+        p.add(btnImport); p.add(btnBulk);
         p.add(btnBack); p.add(btnSubmit);
         return p;
     }
 
+    // Bulk mode: one editable row per enrolled student, saved in a single batch
+    private void showBulkEntryDialog(String modID, String asID, List<String> students) {
+        DefaultTableModel model = new DefaultTableModel(new String[]{"Student ID", "Marks (0-100)", "Feedback"}, 0);
+        for (String stuID : students) model.addRow(new Object[]{stuID, "", ""});
+        if (model.getRowCount() == 0) model.addRow(new Object[]{"", "", ""});
+
+        JTable table = new JTable(model);
+        JScrollPane scroll = new JScrollPane(table);
+        scroll.setPreferredSize(new Dimension(550, 300));
+        JButton btnAddRow = new JButton("Add Row");
+        btnAddRow.addActionListener(e -> model.addRow(new Object[]{"", "", ""}));
+
+        JPanel panel = new JPanel(new BorderLayout(5, 5));
+        panel.add(new JLabel("Module " + modID + ", Assessment " + asID
+            + " - rows with empty marks are skipped"), BorderLayout.NORTH);
+        panel.add(scroll, BorderLayout.CENTER);
+        panel.add(btnAddRow, BorderLayout.SOUTH);
+
+        int opt = JOptionPane.showConfirmDialog(this, panel, "Bulk Mark Entry", JOptionPane.OK_CANCEL_OPTION);
+        if (opt != JOptionPane.OK_OPTION) return;
+        if (table.isEditing()) table.getCellEditor().stopCellEditing();
+
+        List<String[]> rows = new ArrayList<>();
+        for (int i = 0; i < model.getRowCount(); i++) {
+            String stuID    = String.valueOf(model.getValueAt(i, 0)).trim();
+            String marks    = String.valueOf(model.getValueAt(i, 1)).trim();
+            String feedback = String.valueOf(model.getValueAt(i, 2)).trim();
+            if (marks.isEmpty()) continue;
+            rows.add(new String[]{stuID, modID, asID, marks, feedback});
+        }
+        if (rows.isEmpty()) {
+            JOptionPane.showMessageDialog(this, "No marks entered."); return;
+        }
+
+        List<String> errors = logic.inputMarksBatch(rows);
+        if (errors.isEmpty()) {
+            JOptionPane.showMessageDialog(this, rows.size() + " marks submitted!");
+        } else {
+            JTextArea area = new JTextArea(String.join("\n", errors), 10, 40);
+            area.setEditable(false);
+            JOptionPane.showMessageDialog(this, new Object[]{"Nothing was saved. Fix these rows:", new JScrollPane(area)},
+                "Bulk Entry Failed", JOptionPane.ERROR_MESSAGE);
+        }
+    }
+
+    // CSV import: studentID,moduleID,assessmentID,marks[,feedback]
+    private void showImportCsvDialog() {
+        JFileChooser chooser = new JFileChooser();
+        chooser.setDialogTitle("Import Marks (CSV: studentID,moduleID,assessmentID,marks,feedback)");
+        if (chooser.showOpenDialog(this) != JFileChooser.APPROVE_OPTION) return;
+
+        try {
+            MarksImporter.Report report = logic.importMarksCsv(chooser.getSelectedFile().getPath());
+            JTextArea area = new JTextArea(report.toString(), 15, 50);
+            area.setEditable(false);
+            JOptionPane.showMessageDialog(this, new JScrollPane(area), "Import Report",
+                report.rejected == 0 ? JOptionPane.INFORMATION_MESSAGE : JOptionPane.WARNING_MESSAGE);
+        } catch (java.io.IOException ex) {
+            JOptionPane.showMessageDialog(this, "Could not read file: " + ex.getMessage(),
+                "Error", JOptionPane.ERROR_MESSAGE);
+        }
+    }
+
     // ==========================================
     // VIEW COMMENTS PANEL
     // ==========================================
     private JTable commentsTable;
+    private boolean commentsLoaded;
+    // A change to my comments arrived while the table was loading
+    private boolean commentsChangedDuringLoad;
+    private EventBus.Subscription commentSubscription;
 
     private JPanel createCommentsPanel() {
         JPanel p = new JPanel(new BorderLayout());
@@ -267,7 +376,7 @@ public class LecturerGUI extends JFrame {
         p.add(new JScrollPane(commentsTable), BorderLayout.CENTER);
 
         JButton btnBack = new JButton("Back");
-        btnBack.addActionListener(e -> cardLayout.show(mainPanel, "Dashboard"));
+        btnBack.addActionListener(e -> showCard("Dashboard"));
         JPanel south = new JPanel(new FlowLayout()); south.add(btnBack);
         p.add(south, BorderLayout.SOUTH);
         return p;
@@ -276,13 +385,36 @@ public class LecturerGUI extends JFrame {
     private void refreshCommentsTable() {
         DefaultTableModel m = (DefaultTableModel) commentsTable.getModel();
         m.setRowCount(0);
-        for (String[] row : logic.getLecturerComments()) m.addRow(row);
+        commentsLoaded = false;
+        commentsChangedDuringLoad = false;
+        loader.load("comments", "Loading comments...", logic::getLecturerComments, rows -> {
+            // The load may or may not have seen that change, so read again
+            if (commentsChangedDuringLoad) { refreshCommentsTable(); return; }
+            for (String[] row : rows) m.addRow(row);
+            commentsLoaded = true;
+        });
+    }
+
+    // New comments for me appear without reloading comments.txt.
+    // One that arrives during the load makes it read the file again.
+    private void applyCommentChange(EventBus.CommentEvent event) {
+        if (!lecturerID.equals(event.getLecturerID())) return;
+        if (!commentsLoaded) { commentsChangedDuringLoad = true; return; }
+        DefaultTableModel m = (DefaultTableModel) commentsTable.getModel();
+        if (event.getKind() == EventBus.Kind.INSERTED) {
+            if (Fields.count(event.getNewLine()) >= 3) m.addRow(new Object[]{event.getStudentID(), event.getComment()});
+            return;
+        }
+        // Updated or deleted: a reload is simpler than matching the row
+        refreshCommentsTable();
     }
 
     // ==========================================
     // LOGOUT
     // ==========================================
     public void logout() {
+        loader.cancelAll();
+        commentSubscription.close();
         try {
             new LoginGUI().setVisible(true);
             this.dispose();
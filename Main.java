@@ -5,9 +5,37 @@
 public class Main {
     
     public static void main(String[] args) {
+        // Optional: convert results.txt to/from the binary column format and exit
+        //   java Main --export-results [file]   (default results.bin)
+        //   java Main --import-results [file]
+        if (args.length > 0 && (args[0].equals("--export-results") || args[0].equals("--import-results"))) {
+            convertResults(args[0], args.length > 1 ? args[1] : ResultsColumnFile.DEFAULT_FILE);
+            return;
+        }
+
+        // Optional: per-module mark totals straight from a binary column file
+        //   java Main --results-summary [file]   (default results.bin)
+        if (args.length > 0 && args[0].equals("--results-summary")) {
+            summarizeResults(args.length > 1 ? args[1] : ResultsColumnFile.DEFAULT_FILE);
+            return;
+        }
+
+        // Optional: print the heap taken by the loaded data files and exit
+        if (args.length > 0 && args[0].equals("--heap-report")) {
+            System.out.print(HeapReport.build());
+            return;
+        }
+
         // Step 1: System Initialization (Bootstrap)
         systemInitialization();
-        
+
+        // Optional: run headless as an HTTP/JSON server instead of the GUI
+        //   java Main --server [port]   (default 8080)
+        if (args.length > 0 && args[0].equals("--server")) {
+            startServer(args.length > 1 ? args[1] : String.valueOf(ApiServer.DEFAULT_PORT));
+            return;
+        }
+
         // Step 2: Launch Login GUI
         new LoginGUI();
     }
@@ -58,7 +86,74 @@ public class Main {
         
         System.out.println("System initialization complete.");
     }
-    
+
+    // ==========================================
+    // RESULTS BINARY BRIDGE (Command Line)
+    // ==========================================
+    /**
+     * Exports results.txt to a binary column file, or imports one back
+     *
+     * @param mode "--export-results" or "--import-results"
+     * @param binFile The binary file to write or read
+     */
+    private static void convertResults(String mode, String binFile) {
+        long start = System.nanoTime();
+        try {
+            int rows = mode.equals("--export-results")
+                ? ResultsColumnFile.exportResults(binFile)
+                : ResultsColumnFile.importResults(binFile);
+            System.out.printf("%s %d rows (%s) in %d ms%n",
+                mode.equals("--export-results") ? "Exported" : "Imported",
+                rows, binFile, (System.nanoTime() - start) / 1_000_000);
+        } catch (java.io.IOException e) {
+            System.err.println("Error converting results: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Prints count, average, min and max marks per module from a binary
+     * column file, reading only its module and marks columns
+     *
+     * @param binFile The binary file written by --export-results
+     */
+    private static void summarizeResults(String binFile) {
+        long start = System.nanoTime();
+        try {
+            java.util.Map<String, double[]> totals = ResultsColumnFile.read(binFile).markTotalsByModule();
+            System.out.printf("%-12s %8s %8s %8s %8s%n", "Module", "Results", "Average", "Min", "Max");
+            for (java.util.Map.Entry<String, double[]> e : new java.util.TreeMap<>(totals).entrySet()) {
+                double[] t = e.getValue(); // {count, sum, min, max}
+                System.out.printf("%-12s %8d %8.2f %8.2f %8.2f%n", e.getKey(), (long) t[0], t[1] / t[0], t[2], t[3]);
+            }
+            System.out.printf("%d module(s) from %s in %d ms%n", totals.size(), binFile,
+                (System.nanoTime() - start) / 1_000_000);
+        } catch (java.io.IOException e) {
+            System.err.println("Error reading results: " + e.getMessage());
+        }
+    }
+
+    // ==========================================
+    // HEADLESS SERVER (Command Line)
+    // ==========================================
+    /**
+     * Starts the HTTP/JSON API on localhost and keeps running until the
+     * process is stopped (Ctrl+C shuts the server down cleanly)
+     *
+     * @param port Port number, as given on the command line
+     */
+    private static void startServer(String port) {
+        try {
+            ApiServer server = new ApiServer(Integer.parseInt(port));
+            server.start();
+            Runtime.getRuntime().addShutdownHook(new Thread(() -> server.stop(1)));
+            System.out.println("AFS API listening on http://localhost:" + server.getPort() + "/api/");
+        } catch (NumberFormatException e) {
+            System.err.println("Invalid port: " + port);
+        } catch (java.io.IOException e) {
+            System.err.println("Error starting server: " + e.getMessage());
+        }
+    }
+
     // ==========================================
     // LOGIN USER (Called from LoginGUI)
     // ==========================================
@@ -70,30 +165,43 @@ public class Main {
      * @return true if login successful, false otherwise
      */
     public static boolean loginUser(String email, String password) {
-        java.util.List<String> users = Helpers.readFromFile("users.txt");
+        String[] parts = authenticate(email, password);
+        if (parts == null) return false; // Login failed
+        
+        // Login successful - dispatch to appropriate dashboard
+        String userID = parts[0];
+        String role = parts[1];
+        String name = parts[3];
+        
+        dispatchUserByRole(userID, role, name);
+        return true;
+    }
+    
+    /**
+     * Checks an email and password against users.txt (also used by ApiServer)
+     * 
+     * @return The user's fields (userID|role|password|name|gender|email|phone|age), or null
+     */
+    static String[] authenticate(String email, String password) {
+        // Email index lookup instead of scanning users.txt
+        java.util.List<String> users = Helpers.findRecordsByField("users.txt", 5, email);
         
         for (String line : users) {
             if (line.trim().isEmpty()) continue;
             
-            String[] parts = line.split("\\|");
+            String[] parts = Fields.split(line);
             // Format: userID|role|password|name|gender|email|phone|age
             if (parts.length >= 8) {
                 String storedEmail = parts[5];
                 String storedPassword = parts[2];
                 
                 if (storedEmail.equals(email) && storedPassword.equals(password)) {
-                    // Login successful - dispatch to appropriate dashboard
-                    String userID = parts[0];
-                    String role = parts[1];
-                    String name = parts[3];
-                    
-                    dispatchUserByRole(userID, role, name);
-                    return true;
+                    return parts;
                 }
             }
         }
         
-        return false; // Login failed
+        return null;
     }
     
     // ==========================================
@@ -148,14 +256,12 @@ public class Main {
      * @param userID The student's ID
      * @return Student object or null if not found
      */
-    private static Student getUserAsStudent(String userID) {
-        java.util.List<String> users = Helpers.readFromFile("users.txt");
+    static Student getUserAsStudent(String userID) {
+        String line = Helpers.findRecord("users.txt", userID);
         
-        for (String line : users) {
-            if (line.trim().isEmpty()) continue;
-            
-            String[] parts = line.split("\\|");
-            if (parts.length >= 8 && parts[0].equals(userID)) {
+        if (line != null) {
+            String[] parts = Fields.split(line);
+            if (parts.length >= 8) {
                 // Format: userID|role|password|name|gender|email|phone|age
                 return new Student(
                     parts[0], // id
@@ -0,0 +1,291 @@
+import java.io.*;
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+import java.util.Arrays;
+import java.util.function.Predicate;
+
+/**
+ * MappedRecordReader.java - Memory-Mapped Record Scanner
+ * Scans a pipe-delimited data file through a read-only MappedByteBuffer,
+ * finding line breaks and '|' separators on the raw bytes. Nothing is
+ * decoded until the visitor asks for it: comparing a field or parsing a
+ * number works on the bytes, and field(n) decodes just that field.
+ *
+ * Large files are mapped WINDOW_BYTES at a time; a line that runs past the
+ * end of a window is picked up again at the start of the next one. Line
+ * breaks are "\n" or "\r\n" (what BufferedWriter.newLine() writes). Each
+ * window is unmapped as soon as it has been scanned.
+ *
+ * Byte-level search needs a charset that keeps '|' and '\n' as single
+ * ASCII bytes (UTF-8, ISO-8859-1, ...). Under any other default charset the
+ * file is read with a BufferedReader and each line re-encoded as UTF-8.
+ */
+public final class MappedRecordReader {
+
+    public static final long WINDOW_BYTES = 64L * 1024 * 1024;
+
+    /**
+     * Called once per line; return false to stop the scan
+     */
+    public interface RecordVisitor {
+        boolean visit(Record record);
+    }
+
+    private MappedRecordReader() {}
+
+    // ==========================================
+    // 1. SCAN
+    // ==========================================
+    /**
+     * Visits every line of a file in order. A missing file has no lines.
+     *
+     * @return false if the visitor stopped the scan early
+     */
+    public static boolean scan(String fileName, RecordVisitor visitor) throws IOException {
+        return scan(fileName, WINDOW_BYTES, visitor);
+    }
+
+    static boolean scan(String fileName, long windowBytes, RecordVisitor visitor) throws IOException {
+        Path path = Paths.get(fileName);
+        if (!Files.exists(path)) return true;
+        Charset charset = Charset.defaultCharset();
+        if (!asciiCompatible(charset)) return scanDecoded(path, charset, visitor);
+
+        Record record = new Record(charset);
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            long size = channel.size();
+            long pos = 0;
+            long window = Math.min(windowBytes, Integer.MAX_VALUE);
+            while (pos < size) {
+                int len = (int) Math.min(window, size - pos);
+                boolean last = pos + len == size;
+                MappedByteBuffer buf = channel.map(FileChannel.MapMode.READ_ONLY, pos, len);
+
+                int lineStart = 0;
+                try {
+                    while (lineStart < len) {
+                        int nl = indexOf(buf, (byte) '\n', lineStart, len);
+                        if (nl < 0 && !last) break;
+                        int lineEnd = nl < 0 ? len : nl;
+                        if (lineEnd > lineStart && buf.get(lineEnd - 1) == '\r') lineEnd--;
+                        if (!visitor.visit(record.reset(buf, lineStart, lineEnd))) return false;
+                        lineStart = nl < 0 ? len : nl + 1;
+                    }
+                } finally {
+                    record.reset(null, 0, 0);
+                    unmap(buf);
+                }
+
+                if (lineStart == 0 && !last) {
+                    // One line is longer than the window: map a bigger one
+                    if (window == Integer.MAX_VALUE) throw new IOException("Line too long in " + fileName);
+                    window = Math.min(window * 2, Integer.MAX_VALUE);
+                    continue;
+                }
+                pos += lineStart;
+            }
+        }
+        return true;
+    }
+
+    private static boolean scanDecoded(Path path, Charset charset, RecordVisitor visitor) throws IOException {
+        Record record = new Record(StandardCharsets.UTF_8);
+        try (BufferedReader reader = Files.newBufferedReader(path, charset)) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                byte[] bytes = line.getBytes(StandardCharsets.UTF_8);
+                if (!visitor.visit(record.reset(ByteBuffer.wrap(bytes), 0, bytes.length))) return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Visits in-memory lines (e.g. a resident RecordStore's) through the
+     * same Record view, encoded the way scan() would read them from disk
+     */
+    public static Predicate<String> lineVisitor(RecordVisitor visitor) {
+        Charset charset = Charset.defaultCharset();
+        Charset encoding = asciiCompatible(charset) ? charset : StandardCharsets.UTF_8;
+        Record record = new Record(encoding);
+        return line -> {
+            byte[] bytes = line.getBytes(encoding);
+            return visitor.visit(record.reset(ByteBuffer.wrap(bytes), 0, bytes.length));
+        };
+    }
+
+    private static int indexOf(ByteBuffer buf, byte b, int from, int to) {
+        for (int i = from; i < to; i++) {
+            if (buf.get(i) == b) return i;
+        }
+        return -1;
+    }
+
+    // ==========================================
+    // UNMAPPING
+    // ==========================================
+    // A mapping otherwise lives until the buffer is garbage collected, and
+    // while it does Windows refuses to replace the file (the rename in
+    // RecordStore's compaction). sun.misc.Unsafe.invokeCleaner releases it
+    // at once; without it the buffer is left to the GC.
+    private static final Object UNSAFE;
+    private static final Method INVOKE_CLEANER;
+
+    static {
+        Object unsafe = null;
+        Method invokeCleaner = null;
+        try {
+            Class<?> unsafeClass = Class.forName("sun.misc.Unsafe");
+            Field theUnsafe = unsafeClass.getDeclaredField("theUnsafe");
+            theUnsafe.setAccessible(true);
+            unsafe = theUnsafe.get(null);
+            invokeCleaner = unsafeClass.getMethod("invokeCleaner", ByteBuffer.class);
+        } catch (ReflectiveOperationException | RuntimeException e) {
+            unsafe = null;
+            invokeCleaner = null;
+        }
+        UNSAFE = unsafe;
+        INVOKE_CLEANER = invokeCleaner;
+    }
+
+    // The buffer must not be touched afterwards
+    private static void unmap(MappedByteBuffer buf) {
+        if (INVOKE_CLEANER == null) return;
+        try {
+            INVOKE_CLEANER.invoke(UNSAFE, buf);
+        } catch (ReflectiveOperationException | RuntimeException e) {
+            // Left for the GC
+        }
+    }
+
+    private static boolean asciiCompatible(Charset charset) {
+        return Arrays.equals("|\n\r".getBytes(charset), new byte[]{'|', '\n', '\r'});
+    }
+
+    // ==========================================
+    // 2. RECORD VIEW
+    // ==========================================
+    /**
+     * One line of the file, viewed in place. The same instance is reused
+     * for every line, so it is only valid inside visit().
+     * Field numbering follows String.split("\\|"), like Fields.
+     */
+    public static final class Record {
+        private final Charset charset;
+        private ByteBuffer buf;
+        private int start, end;
+        // Offsets of each field's first byte, plus end + 1 as a sentinel
+        private int[] fieldStarts = new int[16];
+        private int fieldCount = -1;
+        private final CharBuffer scratch = CharBuffer.allocate(32);
+
+        private Record(Charset charset) {
+            this.charset = charset;
+        }
+
+        private Record reset(ByteBuffer buf, int start, int end) {
+            this.buf = buf;
+            this.start = start;
+            this.end = end;
+            this.fieldCount = -1;
+            return this;
+        }
+
+        private void locateFields() {
+            if (fieldCount >= 0) return;
+            int n = 0;
+            fieldStarts[n++] = start;
+            for (int i = start; i < end; i++) {
+                if (buf.get(i) == '|') {
+                    if (n + 1 >= fieldStarts.length) fieldStarts = Arrays.copyOf(fieldStarts, n * 2);
+                    fieldStarts[n++] = i + 1;
+                }
+            }
+            fieldStarts[n] = end + 1;
+            // Drop trailing empty fields like split() does
+            if (end > start) {
+                while (n > 0 && fieldStarts[n] - fieldStarts[n - 1] == 1) n--;
+            }
+            fieldCount = n;
+        }
+
+        public int fieldCount() {
+            locateFields();
+            return fieldCount;
+        }
+
+        /**
+         * Compares field n with pre-encoded bytes (see MappedRecordReader.encode)
+         */
+        public boolean fieldEquals(int n, byte[] value) {
+            locateFields();
+            if (n >= fieldCount) return false;
+            int from = fieldStarts[n], to = fieldStarts[n + 1] - 1;
+            if (to - from != value.length) return false;
+            for (int i = 0; i < value.length; i++) {
+                if (buf.get(from + i) != value[i]) return false;
+            }
+            return true;
+        }
+
+        /**
+         * Decodes field n only, or returns null if the line has no such field
+         */
+        public String field(int n) {
+            locateFields();
+            if (n >= fieldCount) return null;
+            return decode(fieldStarts[n], fieldStarts[n + 1] - 1);
+        }
+
+        /**
+         * Parses field n as a number from its bytes, with the same rules as
+         * Fields.parseDouble
+         */
+        public double parseDouble(int n, double fallback) {
+            locateFields();
+            if (n >= fieldCount) return fallback;
+            int from = fieldStarts[n], to = fieldStarts[n + 1] - 1;
+            // Short ASCII fields (marks, weightage) are copied into a reused
+            // char buffer; anything else is decoded
+            if (to - from <= scratch.capacity()) {
+                scratch.clear();
+                for (int i = from; i < to; i++) {
+                    byte b = buf.get(i);
+                    if (b < 0) return Fields.parseDouble(decode(from, to), 0, fallback);
+                    scratch.put((char) b);
+                }
+                scratch.flip();
+                return Fields.parseDouble(scratch, 0, scratch.length(), fallback);
+            }
+            return Fields.parseDouble(decode(from, to), 0, fallback);
+        }
+
+        /**
+         * Decodes the whole line
+         */
+        public String line() {
+            return decode(start, end);
+        }
+
+        private String decode(int from, int to) {
+            byte[] bytes = new byte[to - from];
+            for (int i = 0; i < bytes.length; i++) bytes[i] = buf.get(from + i);
+            return new String(bytes, charset);
+        }
+    }
+
+    /**
+     * Encodes a key once for repeated fieldEquals() calls
+     */
+    public static byte[] encode(String value) {
+        Charset charset = Charset.defaultCharset();
+        return value.getBytes(asciiCompatible(charset) ? charset : StandardCharsets.UTF_8);
+    }
+}
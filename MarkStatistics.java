@@ -0,0 +1,132 @@
+import java.util.*;
+
+/**
+ * MarkStatistics.java - Incrementally Maintained Mark Statistics
+ * Running count / sum / min / max of marks per module and per assessment.
+ * Built from results.txt once, then kept current from RecordStore change
+ * events: a new result adds its marks, an overwritten result subtracts the
+ * old marks before adding the new ones, a deleted result subtracts.
+ * Reading a module's average is therefore O(1) and always up to date.
+ */
+public class MarkStatistics implements RecordStore.ChangeListener {
+
+    private static MarkStatistics instance;
+
+    // ==========================================
+    // RUNNING STATISTICS FOR ONE GROUP
+    // ==========================================
+    public static class Stats {
+        private int count;
+        private double sum;
+        // Marks -> occurrences, so min/max survive removals
+        private final TreeMap<Double, Integer> values = new TreeMap<>();
+
+        private void add(double marks) {
+            count++;
+            sum += marks;
+            values.merge(marks, 1, Integer::sum);
+        }
+
+        private void remove(double marks) {
+            Integer n = values.get(marks);
+            if (n == null) return;
+            if (n == 1) values.remove(marks); else values.put(marks, n - 1);
+            count--;
+            sum = count == 0 ? 0 : sum - marks;
+        }
+
+        public int getCount()     { return count; }
+        public double getSum()    { return sum; }
+        public double getAverage(){ return count == 0 ? 0 : sum / count; }
+        public double getMin()    { return values.isEmpty() ? Double.NaN : values.firstKey(); }
+        public double getMax()    { return values.isEmpty() ? Double.NaN : values.lastKey(); }
+
+        private Stats copy() {
+            Stats c = new Stats();
+            c.count = count;
+            c.sum = sum;
+            c.values.putAll(values);
+            return c;
+        }
+    }
+
+    private final Map<String, Stats> byModule = new HashMap<>();
+    // Key: moduleID|assessmentID
+    private final Map<String, Stats> byAssessment = new HashMap<>();
+
+    private MarkStatistics() {
+    }
+
+    // ==========================================
+    // ACCESS
+    // ==========================================
+    /**
+     * Returns the shared statistics, building them from results.txt on first use
+     */
+    public static MarkStatistics get() {
+        synchronized (MarkStatistics.class) {
+            if (instance != null) return instance;
+        }
+        RecordStore store = RecordStore.of("results.txt");
+        // Lock order is always store -> statistics (same as change events)
+        synchronized (store) {
+            synchronized (MarkStatistics.class) {
+                if (instance == null) {
+                    MarkStatistics stats = new MarkStatistics();
+                    synchronized (stats) {
+                        for (String line : store.linesAndListen(stats)) stats.recordChanged(null, line);
+                    }
+                    instance = stats;
+                }
+                return instance;
+            }
+        }
+    }
+
+    /**
+     * @return A snapshot of a module's statistics (empty if no results)
+     */
+    public synchronized Stats getModuleStats(String moduleID) {
+        Stats s = byModule.get(moduleID);
+        return s == null ? new Stats() : s.copy();
+    }
+
+    /**
+     * @return A snapshot of one assessment's statistics (empty if no results)
+     */
+    public synchronized Stats getAssessmentStats(String moduleID, String assessmentID) {
+        Stats s = byAssessment.get(moduleID + "|" + assessmentID);
+        return s == null ? new Stats() : s.copy();
+    }
+
+    // ==========================================
+    // INCREMENTAL UPDATE
+    // ==========================================
+    @Override
+    public synchronized void recordChanged(String oldLine, String newLine) {
+        if (oldLine != null) apply(oldLine, false);
+        if (newLine != null) apply(newLine, true);
+    }
+
+    private void apply(String line, boolean add) {
+        // results.txt format: studentID|moduleID|assessmentID|marks|feedback
+        double marks = Fields.parseDouble(line, 3, Double.NaN);
+        if (Double.isNaN(marks)) return;
+        String moduleID = Fields.get(line, 1);
+        String asKey = Fields.span(line, 1, 2);
+        if (add) {
+            byModule.computeIfAbsent(moduleID, k -> new Stats()).add(marks);
+            byAssessment.computeIfAbsent(asKey, k -> new Stats()).add(marks);
+        } else {
+            removeFrom(byModule, moduleID, marks);
+            removeFrom(byAssessment, asKey, marks);
+        }
+    }
+
+    private static void removeFrom(Map<String, Stats> groups, String key, double marks) {
+        Stats s = groups.get(key);
+        if (s == null) return;
+        s.remove(marks);
+        if (s.count == 0) groups.remove(key);
+    }
+}
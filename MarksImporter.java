@@ -0,0 +1,127 @@
+import java.io.*;
+import java.util.*;
+
+/**
+ * MarksImporter.java - CSV Bulk Import of Marks
+ * Streams a CSV export (studentID,moduleID,assessmentID,marks[,feedback])
+ * one line at a time, validates each row, and upserts every valid row into
+ * results.txt with a single batch write. Invalid rows are reported with their
+ * line number and skipped; they do not stop the rest of the import.
+ *
+ * Rows are checked with Lecturer.MarkChecker, the same rules as marks
+ * entered by hand: the module is one of the importing lecturer's, the
+ * assessment belongs to it, the student is enrolled in it, and marks are
+ * a number between 0 and 100.
+ */
+public class MarksImporter {
+
+    // Keep the error report bounded for very bad files
+    public static final int MAX_REPORTED_ERRORS = 1000;
+
+    private final Lecturer.MarkChecker checker;
+
+    public MarksImporter(Lecturer lecturer) {
+        this.checker = lecturer.markChecker();
+    }
+
+    // ==========================================
+    // IMPORT REPORT
+    // ==========================================
+    public static class Report {
+        public int rowsRead;
+        public int inserted;
+        public int updated;
+        public int rejected;
+        public long elapsedMillis;
+        public final List<String> errors = new ArrayList<>();
+
+        public double rowsPerSecond() {
+            return elapsedMillis == 0 ? rowsRead * 1000.0 : rowsRead * 1000.0 / elapsedMillis;
+        }
+
+        private void reject(String message) {
+            rejected++;
+            if (errors.size() < MAX_REPORTED_ERRORS) errors.add(message);
+        }
+
+        @Override
+        public String toString() {
+            StringBuilder sb = new StringBuilder();
+            sb.append("Rows read: ").append(rowsRead).append("\n");
+            sb.append("Inserted: ").append(inserted).append("\n");
+            sb.append("Updated: ").append(updated).append("\n");
+            sb.append("Rejected: ").append(rejected).append("\n");
+            sb.append(String.format("Time: %d ms (%.0f rows/sec)%n", elapsedMillis, rowsPerSecond()));
+            if (!errors.isEmpty()) {
+                sb.append("\nErrors:\n");
+                for (String e : errors) sb.append("  ").append(e).append("\n");
+                if (rejected > errors.size()) {
+                    sb.append("  ... and ").append(rejected - errors.size()).append(" more\n");
+                }
+            }
+            return sb.toString();
+        }
+    }
+
+    // ==========================================
+    // IMPORT
+    // ==========================================
+    /**
+     * Imports a CSV file of marks. A first line whose marks column is
+     * "marks" (any case) is treated as a header and skipped.
+     *
+     * @param csvFile Path to the CSV file
+     * @return The import report (counts, rejected rows, throughput)
+     */
+    public Report importCsv(String csvFile) throws IOException {
+        Report report = new Report();
+        List<String> records = new ArrayList<>();
+        long start = System.nanoTime();
+
+        try (BufferedReader reader = new BufferedReader(new FileReader(csvFile))) {
+            String line;
+            int lineNo = 0;
+            while ((line = reader.readLine()) != null) {
+                lineNo++;
+                if (line.trim().isEmpty()) continue;
+
+                List<String> cols = Helpers.parseCsvLine(line);
+                if (cols == null) {
+                    report.rowsRead++;
+                    report.reject("Line " + lineNo + ": unclosed quote");
+                    continue;
+                }
+                if (lineNo == 1 && cols.size() >= 4 && cols.get(3).trim().equalsIgnoreCase("marks")) continue;
+
+                report.rowsRead++;
+                String error = validate(cols);
+                if (error != null) {
+                    report.reject("Line " + lineNo + ": " + error);
+                    continue;
+                }
+                records.add(cols.get(0).trim() + "|" + cols.get(1).trim() + "|" + cols.get(2).trim()
+                    + "|" + cols.get(3).trim() + "|" + (cols.size() > 4 ? cols.get(4).trim() : ""));
+            }
+        }
+
+        if (!records.isEmpty()) {
+            int[] counts = Helpers.upsertRecords("results.txt", records, 3);
+            report.inserted = counts[0];
+            report.updated = counts[1];
+        }
+        report.elapsedMillis = (System.nanoTime() - start) / 1_000_000;
+        return report;
+    }
+
+    // ==========================================
+    // ROW VALIDATION
+    // ==========================================
+    /**
+     * @return An error message, or null if the row can be imported
+     */
+    private String validate(List<String> cols) {
+        if (cols.size() < 4) return "expected studentID,moduleID,assessmentID,marks[,feedback]";
+        return checker.check(cols.get(0).trim(), cols.get(1).trim(), cols.get(2).trim(), cols.get(3).trim(),
+            cols.size() > 4 ? cols.get(4).trim() : "");
+    }
+}
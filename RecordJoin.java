@@ -0,0 +1,103 @@
+import java.util.*;
+
+/**
+ * RecordJoin.java - Indexed Joins Over Record Files
+ * Small relational helpers on top of RecordStore's field indexes. Each step
+ * looks rows up by key instead of scanning a whole file, so a query costs
+ * time proportional to the rows it touches, not to the size of the files.
+ *
+ * Rows are returned as String[] split the same way the role classes split
+ * lines (Fields.split, same result as line.split("\\|")), in file order.
+ */
+public class RecordJoin {
+
+    // ==========================================
+    // 1. SELECT
+    // ==========================================
+    /**
+     * Returns the rows of a file whose field equals key
+     *
+     * @param fileName The file to read (e.g., "enrollments.txt")
+     * @param field Zero-based field to match (0 uses the primary index)
+     * @param key The value to match
+     */
+    public static List<String[]> select(String fileName, int field, String key) {
+        List<String[]> rows = new ArrayList<>();
+        for (String line : RecordStore.of(fileName).findBy(field, key)) {
+            rows.add(Fields.split(line));
+        }
+        return rows;
+    }
+
+    // ==========================================
+    // 2. HASH JOIN
+    // ==========================================
+    /**
+     * Joins left rows to a file: for each distinct value of leftField, looks up
+     * the rows of rightFile whose rightField equals it
+     *
+     * @param left Rows already selected (e.g., a student's enrollments)
+     * @param leftField Field of the left rows holding the join key
+     * @param rightFile File to join to (e.g., "classes.txt")
+     * @param rightField Field of rightFile to match against
+     * @return The matching right rows (each right row at most once)
+     */
+    public static List<String[]> join(List<String[]> left, int leftField, String rightFile, int rightField) {
+        List<String[]> joined = new ArrayList<>();
+        for (String key : column(left, leftField)) {
+            joined.addAll(select(rightFile, rightField, key));
+        }
+        return joined;
+    }
+
+    // ==========================================
+    // 3. PROJECT
+    // ==========================================
+    /**
+     * Distinct values of one field across rows (rows too short are skipped)
+     */
+    public static Set<String> column(List<String[]> rows, int field) {
+        Set<String> values = new LinkedHashSet<>();
+        for (String[] row : rows) {
+            if (row.length > field) values.add(row[field]);
+        }
+        return values;
+    }
+
+    // ==========================================
+    // 4. STUDENT TRANSCRIPT
+    // ==========================================
+    /**
+     * A student's results for the modules they are enrolled in:
+     * enrollments (studentID) -> classes (classID) -> results (studentID, moduleID)
+     *
+     * @param studentID The student's ID
+     * @return Result rows (studentID|moduleID|assessmentID|marks|feedback) in file order
+     */
+    public static List<String[]> studentTranscript(String studentID) {
+        Set<String> moduleIDs = studentModules(studentID);
+
+        // results.txt: studentID|moduleID|assessmentID|marks|feedback
+        List<String[]> transcript = new ArrayList<>();
+        for (String[] result : select("results.txt", 0, studentID)) {
+            if (result.length >= 5 && moduleIDs.contains(result[1])) {
+                transcript.add(result);
+            }
+        }
+        return transcript;
+    }
+
+    /**
+     * The modules a student is enrolled in:
+     * enrollments (studentID) -> classes (classID) -> moduleID
+     */
+    public static Set<String> studentModules(String studentID) {
+        // enrollments.txt: studentID|classID  ->  classes.txt: classID|className|moduleID
+        List<String[]> enrollments = select("enrollments.txt", 0, studentID);
+        List<String[]> classes = new ArrayList<>();
+        for (String[] cls : join(enrollments, 1, "classes.txt", 0)) {
+            if (cls.length >= 3) classes.add(cls);
+        }
+        return column(classes, 2);
+    }
+}
@@ -0,0 +1,137 @@
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+import java.util.zip.CRC32;
+
+/**
+ * RecordJournal.java - Append-Only Write-Ahead Log
+ * Each RecordStore keeps a journal file next to its data file
+ * (e.g. "users.txt.journal"). Updates and deletes are appended here instead
+ * of rewriting the whole data file, and replayed on startup.
+ *
+ * Entry format (one per line): crc|op|payload
+ *   H|baseChecksum|baseLines   header tying the journal to one version of the data file
+ *   A|line                     line appended
+ *   S|slot|line                line at slot position replaced
+ *   X|slot                     line at slot position deleted
+ * The leading CRC32 lets replay stop at a torn last entry after a crash;
+ * truncateTail() then cuts that entry off before anything new is appended.
+ */
+public class RecordJournal {
+
+    private final File file;
+    private long size;
+    // Bytes up to the end of the last intact entry seen by readEntries()
+    private long intactBytes;
+
+    public RecordJournal(String dataFileName) {
+        this.file = new File(dataFileName + ".journal");
+        this.size = file.exists() ? file.length() : 0;
+    }
+
+    // ==========================================
+    // 1. APPEND ENTRIES
+    // ==========================================
+    /**
+     * Appends entries with a single write and forces them to disk
+     *
+     * @param entries Entry bodies without the CRC prefix (e.g. "X|12")
+     */
+    public void append(List<String> entries) throws IOException {
+        StringBuilder sb = new StringBuilder();
+        for (String entry : entries) {
+            sb.append(checksum(entry)).append('|').append(entry).append('\n');
+        }
+        byte[] bytes = sb.toString().getBytes(StandardCharsets.UTF_8);
+        try (FileOutputStream out = new FileOutputStream(file, true)) {
+            out.write(bytes);
+            out.getChannel().force(false);
+        } catch (IOException e) {
+            // Cut off a partly written batch so later entries are not appended behind it
+            try (RandomAccessFile raf = new RandomAccessFile(file, "rw")) {
+                if (raf.length() > size) raf.setLength(size);
+            } catch (IOException ignored) {
+                // Replay stops at the torn entry and truncateTail() removes it
+            }
+            throw e;
+        }
+        size += bytes.length;
+    }
+
+    // ==========================================
+    // 2. READ ENTRIES (For Replay)
+    // ==========================================
+    /**
+     * Reads all intact entries in order, stopping at the first torn or corrupt one
+     *
+     * @return Entry bodies without the CRC prefix
+     */
+    public List<String> readEntries() {
+        List<String> entries = new ArrayList<>();
+        intactBytes = 0;
+        if (!file.exists()) return entries;
+
+        long length = file.length();
+        try (BufferedReader reader = new BufferedReader(
+                new InputStreamReader(new FileInputStream(file), StandardCharsets.UTF_8))) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                int bar = line.indexOf('|');
+                if (bar < 0) break;
+                String body = line.substring(bar + 1);
+                if (!line.substring(0, bar).equals(checksum(body))) break;
+                // Entries are written as UTF-8 ending in '\n'; one cut off
+                // before its line break was never completely written
+                long end = intactBytes + line.getBytes(StandardCharsets.UTF_8).length + 1;
+                if (end > length) break;
+                entries.add(body);
+                intactBytes = end;
+            }
+        } catch (IOException e) {
+            System.err.println("Error reading journal " + file.getName() + ": " + e.getMessage());
+        }
+        return entries;
+    }
+
+    // ==========================================
+    // 3. SIZE / RESET
+    // ==========================================
+    public boolean isEmpty() { return size == 0; }
+
+    public long size() { return size; }
+
+    /**
+     * Cuts off whatever follows the last intact entry found by readEntries()
+     * (a torn or corrupt tail). Without this, entries appended later would
+     * sit behind bytes that replay stops at, and be lost on the next start.
+     *
+     * @return true if a tail was cut off
+     */
+    public boolean truncateTail() throws IOException {
+        if (!file.exists() || file.length() <= intactBytes) return false;
+        try (RandomAccessFile raf = new RandomAccessFile(file, "rw")) {
+            raf.getChannel().truncate(intactBytes);
+            raf.getChannel().force(false);
+        }
+        size = intactBytes;
+        return true;
+    }
+
+    /**
+     * Truncates the journal once its entries have been folded into the data file
+     */
+    public void clear() throws IOException {
+        if (file.exists()) {
+            try (FileOutputStream out = new FileOutputStream(file, false)) {
+                out.getChannel().force(false);
+            }
+        }
+        size = 0;
+    }
+
+    private static String checksum(String body) {
+        CRC32 crc = new CRC32();
+        crc.update(body.getBytes(StandardCharsets.UTF_8));
+        return Long.toHexString(crc.getValue());
+    }
+}
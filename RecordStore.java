@@ -0,0 +1,805 @@
+import java.io.*;
+import java.nio.channels.ClosedByInterruptException;
+import java.nio.charset.Charset;
+import java.nio.file.*;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.function.Predicate;
+import java.util.zip.CRC32;
+
+/**
+ * RecordStore.java - Resident Record Store
+ * Keeps one pipe-delimited data file (users.txt, results.txt, ...) in memory
+ * after the first read and indexes its records on field 0 (the record ID).
+ * Lookups, updates and deletes are served from memory. Secondary indexes on
+ * other fields (e.g. email in users.txt) are built on first use by findBy()
+ * and kept up to date on every append, update and delete. Index keys are
+ * IdDictionary codes and positions are plain ints (IntListMap): the only
+ * Strings held are the lines themselves plus one per distinct indexed value
+ * in IdDictionary, and nothing is boxed.
+ *
+ * Persistence:
+ *   - appends go straight to the end of the data file
+ *   - updates and deletes are appended to a RecordJournal (O(1) per change)
+ *   - once the journal passes COMPACT_THRESHOLD_BYTES it is folded back into
+ *     the data file in the background, using a temp file + atomic rename so a
+ *     crash never leaves a truncated data file
+ * While the journal has pending entries, appends are journalled too so that
+ * replay on startup applies every change in its original order.
+ *
+ * scan() and select() filter the resident lines in place, so callers that
+ * need only a few rows do not pay for a copy of the whole file.
+ *
+ * Listeners registered with linesAndListen() or addListener() are told
+ * about every line inserted, replaced or removed after they subscribe, so
+ * derived data (e.g. MarkStatistics, open GUI tables) can be kept current
+ * without rescanning.
+ *
+ * One store exists per file name; obtain it with RecordStore.of(fileName).
+ * scanFields() serves a one-off report over a file that is not resident
+ * straight from disk, decoding only the fields it reads.
+ */
+public class RecordStore {
+
+    /**
+     * Receives each change to a store: oldLine is null for an insert,
+     * newLine is null for a delete. Called while the store is locked, so
+     * implementations must be quick and must not call back into the store.
+     */
+    public interface ChangeListener {
+        void recordChanged(String oldLine, String newLine);
+    }
+
+    public static final long COMPACT_THRESHOLD_BYTES = 256 * 1024;
+
+    private static final Map<String, RecordStore> STORES = new HashMap<>();
+
+    private static final ExecutorService COMPACTOR = Executors.newSingleThreadExecutor(r -> {
+        Thread t = new Thread(r, "RecordStore-compactor");
+        t.setDaemon(true);
+        return t;
+    });
+
+    static {
+        // Fold any pending journal entries into the data files on normal exit
+        Runtime.getRuntime().addShutdownHook(new Thread(RecordStore::compactAll, "RecordStore-shutdown"));
+    }
+
+    private final String fileName;
+    private final RecordJournal journal;
+    // Lines in file order; a deleted line leaves a null slot until the next compaction
+    private final List<String> slots = new ArrayList<>();
+    // Primary-key index: code of field 0 -> slot positions holding that key
+    private final IntListMap primaryIndex = new IntListMap();
+    // Secondary indexes: field number -> (code of field value -> slot positions)
+    private final Map<Integer, IntListMap> secondaryIndexes = new HashMap<>();
+    private int liveCount;
+    // Bumped on every change, lets callers tell whether cached results are stale
+    private long version;
+    // Checksum of the data file's lines, recorded in the journal header
+    private final CRC32 baseChecksum = new CRC32();
+    private int baseLines;
+    private boolean compactionQueued;
+    private final List<ChangeListener> listeners = new ArrayList<>();
+
+    private RecordStore(String fileName) throws IOException {
+        this.fileName = fileName;
+        this.journal = new RecordJournal(fileName);
+        load();
+    }
+
+    // ==========================================
+    // STORE LOOKUP
+    // ==========================================
+    /**
+     * Returns the resident store for a file, loading it on first use.
+     * A file that cannot be read is not registered: a partial store would
+     * be taken for the whole file by the next update or compaction.
+     *
+     * @param fileName The data file (e.g., "users.txt")
+     * @return The shared store for that file
+     * @throws UncheckedIOException if the file could not be read
+     */
+    public static synchronized RecordStore of(String fileName) {
+        RecordStore store = STORES.get(fileName);
+        if (store == null) {
+            try {
+                store = new RecordStore(fileName);
+            } catch (IOException e) {
+                throw new UncheckedIOException("Error reading from file " + fileName, e);
+            }
+            STORES.put(fileName, store);
+        }
+        return store;
+    }
+
+    /**
+     * Visits a file's records as MappedRecordReader Records, so the
+     * visitor decodes only the fields it reads. A file whose store is not
+     * resident and that has no pending journal entries is scanned in place
+     * on disk without loading it; otherwise the resident lines are visited.
+     *
+     * @return false if the visitor stopped the scan early
+     */
+    public static boolean scanFields(String fileName, MappedRecordReader.RecordVisitor visitor) {
+        RecordStore store;
+        synchronized (RecordStore.class) {
+            store = STORES.get(fileName);
+        }
+        if (store == null && new RecordJournal(fileName).isEmpty()) {
+            boolean[] visited = {false};
+            try {
+                return MappedRecordReader.scan(fileName, record -> {
+                    visited[0] = true;
+                    return visitor.visit(record);
+                });
+            } catch (IOException e) {
+                // Lines already visited cannot be taken back
+                if (visited[0]) throw new UncheckedIOException("Error reading from file " + fileName, e);
+            }
+        }
+        return of(fileName).scan(MappedRecordReader.lineVisitor(visitor));
+    }
+
+    /**
+     * Compacts every loaded store that has pending journal entries
+     */
+    public static void compactAll() {
+        List<RecordStore> stores;
+        synchronized (RecordStore.class) {
+            stores = new ArrayList<>(STORES.values());
+        }
+        for (RecordStore store : stores) store.compact();
+    }
+
+    // ==========================================
+    // 1. READ OPERATIONS
+    // ==========================================
+    /**
+     * Returns a copy of all live lines in file order.
+     * Callers may modify the returned list freely.
+     */
+    public synchronized List<String> lines() {
+        List<String> copy = new ArrayList<>(liveCount);
+        for (String line : slots) {
+            if (line != null) copy.add(line);
+        }
+        return copy;
+    }
+
+    /**
+     * Visits live lines in file order without copying them, stopping as soon
+     * as the visitor returns false. Runs under the store lock, so the visitor
+     * must not write to this store.
+     *
+     * @return false if the visitor stopped the scan early
+     */
+    public synchronized boolean scan(Predicate<String> visitor) {
+        for (int i = 0, n = slots.size(); i < n; i++) {
+            String line = slots.get(i);
+            if (line != null && !visitor.test(line)) return false;
+        }
+        return true;
+    }
+
+    /**
+     * Returns the lines that pass the filter, in file order, stopping once
+     * limit lines have been found. Only matching lines are copied.
+     */
+    public synchronized List<String> select(Predicate<String> filter, int limit) {
+        List<String> found = new ArrayList<>();
+        for (int i = 0, n = slots.size(); i < n && found.size() < limit; i++) {
+            String line = slots.get(i);
+            if (line != null && filter.test(line)) found.add(line);
+        }
+        return found;
+    }
+
+    /**
+     * Returns every line whose first field equals the given ID
+     *
+     * @param id The record ID (field 0)
+     * @return Matching lines in file order (empty if none)
+     */
+    public synchronized List<String> find(String id) {
+        return linesAt(primaryIndex, IdDictionary.find(id));
+    }
+
+    /**
+     * Returns the first line whose first field equals the given ID, or null
+     */
+    public synchronized String findFirst(String id) {
+        int index = primaryIndex.indexOf(IdDictionary.find(id));
+        return index < 0 ? null : slots.get(primaryIndex.valueAt(index, 0));
+    }
+
+    /**
+     * Returns every line whose given field equals value, using a secondary
+     * index on that field (built on the first call for the field)
+     *
+     * @param field Zero-based field number (e.g., 5 for email in users.txt)
+     * @param value The value to match
+     * @return Matching lines in file order (empty if none)
+     */
+    public synchronized List<String> findBy(int field, String value) {
+        if (field == 0) return find(value);
+        return linesAt(secondaryIndex(field), IdDictionary.find(value));
+    }
+
+    private List<String> linesAt(IntListMap index, int code) {
+        int at = index.indexOf(code);
+        if (at < 0) return new ArrayList<>();
+        List<String> found = new ArrayList<>(index.sizeAt(at));
+        for (int i = 0; i < index.sizeAt(at); i++) found.add(slots.get(index.valueAt(at, i)));
+        return found;
+    }
+
+    /**
+     * Returns a copy of every distinct record ID (field 0) in the store
+     */
+    public synchronized Set<String> keys() {
+        Set<String> keys = new HashSet<>(primaryIndex.size() * 2);
+        for (int code : primaryIndex.keys()) keys.add(IdDictionary.id(code));
+        return keys;
+    }
+
+    public synchronized boolean contains(String id) {
+        return primaryIndex.containsKey(IdDictionary.find(id));
+    }
+
+    /**
+     * Returns a copy of all live lines and subscribes the listener to every
+     * later change, atomically, so no change can fall between the two
+     */
+    public synchronized List<String> linesAndListen(ChangeListener listener) {
+        listeners.add(listener);
+        return lines();
+    }
+
+    /**
+     * Subscribes the listener to every later change
+     */
+    public synchronized void addListener(ChangeListener listener) {
+        listeners.add(listener);
+    }
+
+    public synchronized void removeListener(ChangeListener listener) {
+        listeners.remove(listener);
+    }
+
+    public synchronized int size() {
+        return liveCount;
+    }
+
+    /**
+     * Modification counter; changes whenever any line is added, replaced or removed
+     */
+    public synchronized long version() {
+        return version;
+    }
+
+    // ==========================================
+    // 2. WRITE OPERATIONS
+    // ==========================================
+    /**
+     * Appends a line to the store and to the end of the file
+     *
+     * @return false if it could not be written (the store is unchanged)
+     */
+    public synchronized boolean append(String line) {
+        return appendAll(Collections.singletonList(line));
+    }
+
+    /**
+     * Appends a line unless a line whose given field equals value (found
+     * through that field's index) passes the conflict test. The check and
+     * the append are one step under the store's lock, so two callers racing
+     * to insert the same key cannot both succeed.
+     *
+     * @return false if a conflicting line exists or the line could not be written
+     */
+    public synchronized boolean appendUnless(int field, String value, Predicate<String> conflict, String line) {
+        for (String existing : findBy(field, value)) {
+            if (conflict.test(existing)) return false;
+        }
+        return append(line);
+    }
+
+    /**
+     * Appends many lines with a single buffered write (bulk inserts).
+     * The lines are only kept, and listeners only told, once they are on disk.
+     *
+     * @return false if they could not be written (the store is unchanged)
+     */
+    public synchronized boolean appendAll(List<String> lines) {
+        if (lines.isEmpty()) return true;
+        for (String line : lines) addSlot(line);
+
+        boolean written;
+        if (journal.isEmpty()) {
+            written = appendToDisk(lines);
+        } else {
+            List<String> entries = new ArrayList<>(lines.size());
+            for (String line : lines) entries.add("A|" + line);
+            written = journalWrite(entries);
+        }
+        if (!written) {
+            removeLastSlots(lines.size());
+            return false;
+        }
+        for (String line : lines) fire(null, line);
+        return true;
+    }
+
+    /**
+     * Replaces every line whose first field equals id
+     *
+     * @return true if at least one line was replaced
+     */
+    public synchronized boolean update(String id, String newRecord) {
+        return replaceAt(primaryIndex.get(IdDictionary.find(id)), newRecord);
+    }
+
+    /**
+     * Replaces every line whose given field equals value, found through
+     * that field's index (e.g. the assignment for a module in assignments.txt)
+     *
+     * @return true if at least one line was replaced
+     */
+    public synchronized boolean updateBy(int field, String value, String newRecord) {
+        if (field == 0) return update(value, newRecord);
+        IntListMap index = secondaryIndex(field);
+        int at = index.indexOf(IdDictionary.find(value));
+        if (at < 0) return false;
+        // Copied first: replacing a line updates the index
+        int[] positions = new int[index.sizeAt(at)];
+        for (int i = 0; i < positions.length; i++) positions[i] = index.valueAt(at, i);
+        return replaceAt(positions, newRecord);
+    }
+
+    private boolean replaceAt(int[] positions, String newRecord) {
+        if (positions.length == 0) return false;
+        List<String> entries = new ArrayList<>();
+        for (int pos : positions) {
+            String old = slots.get(pos);
+            setSlot(pos, newRecord);
+            fire(old, newRecord);
+            entries.add("S|" + pos + "|" + newRecord);
+        }
+        journalWrite(entries);
+        return true;
+    }
+
+    /**
+     * Removes every line whose first field equals id
+     *
+     * @return true if at least one line was removed
+     */
+    public synchronized boolean delete(String id) {
+        int[] positions = primaryIndex.get(IdDictionary.find(id));
+        if (positions.length == 0) return false;
+        List<String> entries = new ArrayList<>();
+        for (int pos : positions) {
+            String old = slots.get(pos);
+            setSlot(pos, null);
+            fire(old, null);
+            entries.add("X|" + pos);
+        }
+        journalWrite(entries);
+        return true;
+    }
+
+    /**
+     * Inserts or replaces a batch of lines with one journal write.
+     * A new line replaces the first existing line whose first keyFields
+     * fields are equal (e.g. 3 for studentID|moduleID|assessmentID in
+     * results.txt); otherwise it is appended. Later lines in the batch win
+     * over earlier ones with the same key.
+     *
+     * @return {inserted, updated}
+     */
+    public synchronized int[] upsertAll(List<String> newLines, int keyFields) {
+        int inserted = 0, updated = 0;
+        List<String> entries = new ArrayList<>(newLines.size());
+
+        for (String line : newLines) {
+            String key = keyPrefix(line, keyFields);
+            int match = -1;
+            int candidates = primaryIndex.indexOf(fieldCode(line, 0, false));
+            for (int i = 0; candidates >= 0 && i < primaryIndex.sizeAt(candidates); i++) {
+                int pos = primaryIndex.valueAt(candidates, i);
+                if (key.equals(keyPrefix(slots.get(pos), keyFields))) { match = pos; break; }
+            }
+            if (match >= 0) {
+                String old = slots.get(match);
+                setSlot(match, line);
+                fire(old, line);
+                entries.add("S|" + match + "|" + line);
+                updated++;
+            } else {
+                addSlot(line);
+                fire(null, line);
+                entries.add("A|" + line);
+                inserted++;
+            }
+        }
+
+        if (!entries.isEmpty()) journalWrite(entries);
+        return new int[]{inserted, updated};
+    }
+
+    /**
+     * Replaces the whole content of the store and the file. If the file
+     * cannot be written the store is left as it was.
+     */
+    public synchronized void replaceAll(List<String> lines) {
+        if (!writeDataFile(lines)) return;
+        if (!listeners.isEmpty()) {
+            for (String old : slots) {
+                if (old != null) fire(old, null);
+            }
+        }
+        clear();
+        for (String line : lines) {
+            addSlot(line);
+            fire(null, line);
+        }
+        rebase();
+    }
+
+    /**
+     * Folds pending journal entries into the data file and truncates the journal
+     */
+    public synchronized void compact() {
+        compactionQueued = false;
+        if (journal.isEmpty()) return;
+        rewriteDataFile();
+    }
+
+    // ==========================================
+    // INDEX MAINTENANCE
+    // ==========================================
+    private void addSlot(String line) {
+        version++;
+        slots.add(line);
+        liveCount++;
+        indexSlot(slots.size() - 1, line);
+    }
+
+    // Undoes addSlot() for the last n slots
+    private void removeLastSlots(int n) {
+        for (int i = 0; i < n; i++) {
+            int last = slots.size() - 1;
+            setSlot(last, null);
+            slots.remove(last);
+        }
+    }
+
+    private void setSlot(int pos, String line) {
+        version++;
+        String old = slots.get(pos);
+        if (old != null) {
+            unindexSlot(pos, old);
+            liveCount--;
+        }
+        slots.set(pos, line);
+        if (line != null) {
+            liveCount++;
+            indexSlot(pos, line);
+        }
+    }
+
+    private void indexSlot(int pos, String line) {
+        addPosition(primaryIndex, fieldCode(line, 0, true), pos);
+        for (Map.Entry<Integer, IntListMap> index : secondaryIndexes.entrySet()) {
+            addPosition(index.getValue(), fieldCode(line, index.getKey(), true), pos);
+        }
+    }
+
+    private void unindexSlot(int pos, String line) {
+        removePosition(primaryIndex, fieldCode(line, 0, false), pos);
+        for (Map.Entry<Integer, IntListMap> index : secondaryIndexes.entrySet()) {
+            removePosition(index.getValue(), fieldCode(line, index.getKey(), false), pos);
+        }
+    }
+
+    private IntListMap secondaryIndex(int field) {
+        IntListMap index = secondaryIndexes.get(field);
+        if (index == null) {
+            index = new IntListMap();
+            for (int pos = 0; pos < slots.size(); pos++) {
+                String line = slots.get(pos);
+                if (line == null) continue;
+                addPosition(index, fieldCode(line, field, true), pos);
+            }
+            secondaryIndexes.put(field, index);
+        }
+        return index;
+    }
+
+    // Positions are kept ascending so lookups return lines in file order
+    private static void addPosition(IntListMap index, int code, int pos) {
+        if (code >= 0) index.addSorted(code, pos);
+    }
+
+    private static void removePosition(IntListMap index, int code, int pos) {
+        if (code >= 0) index.removeSorted(code, pos);
+    }
+
+    private void fire(String oldLine, String newLine) {
+        for (ChangeListener listener : listeners) {
+            try {
+                listener.recordChanged(oldLine, newLine);
+            } catch (RuntimeException e) {
+                System.err.println("Change listener failed for " + fileName + ": " + e.getMessage());
+            }
+        }
+    }
+
+    private void clear() {
+        version++;
+        slots.clear();
+        primaryIndex.clear();
+        for (IntListMap index : secondaryIndexes.values()) index.clear();
+        liveCount = 0;
+    }
+
+    /**
+     * IdDictionary code of field n of a line, or -1 if the line has fewer
+     * fields. With assign false, a value never seen before also gives -1.
+     */
+    static int fieldCode(String line, int field, boolean assign) {
+        int start = 0;
+        for (int i = 0; i < field; i++) {
+            start = line.indexOf('|', start) + 1;
+            if (start == 0) return -1;
+        }
+        int end = line.indexOf('|', start);
+        if (end < 0) end = line.length();
+        return assign ? IdDictionary.code(line, start, end) : IdDictionary.find(line, start, end);
+    }
+
+    /**
+     * The first n fields of a line with their separators (e.g. "STU01|MOD101|AS01")
+     */
+    static String keyPrefix(String line, int fields) {
+        int end = -1;
+        for (int i = 0; i < fields; i++) {
+            end = line.indexOf('|', end + 1);
+            if (end < 0) return line;
+        }
+        return line.substring(0, end);
+    }
+
+    // ==========================================
+    // LOAD + JOURNAL REPLAY
+    // ==========================================
+    private static final int LOAD_ATTEMPTS = 3;
+
+    /**
+     * Reads the data file, retrying a failed read from the start. An
+     * interrupt closes the file channel mid-read (ClosedByInterruptException),
+     * so the retry runs with the interrupt cleared and restores it after.
+     */
+    private void load() throws IOException {
+        boolean interrupted = false;
+        try {
+            for (int attempt = 1; ; attempt++) {
+                try {
+                    readDataFile();
+                    break;
+                } catch (IOException e) {
+                    if (e instanceof ClosedByInterruptException) interrupted |= Thread.interrupted();
+                    clear();
+                    baseChecksum.reset();
+                    baseLines = 0;
+                    if (attempt == LOAD_ATTEMPTS) throw e;
+                    System.err.println("Retrying read of " + fileName + ": " + e);
+                }
+            }
+        } finally {
+            if (interrupted) Thread.currentThread().interrupt();
+        }
+        replayJournal();
+    }
+
+    private void readDataFile() throws IOException {
+        // Mapped scan: line breaks are found on the page-cache bytes
+        MappedRecordReader.scan(fileName, record -> {
+            String line = record.line();
+            addSlot(line);
+            recordBaseLine(line);
+            return true;
+        });
+    }
+
+    private void replayJournal() {
+        List<String> entries = journal.readEntries();
+        boolean tornTailKept = false;
+        try {
+            if (journal.truncateTail()) System.err.println("Dropped torn journal tail for " + fileName);
+        } catch (IOException e) {
+            System.err.println("Error truncating journal for " + fileName + ": " + e.getMessage());
+            tornTailKept = true;
+        }
+        if (entries.isEmpty()) {
+            if (tornTailKept) resetJournal();
+            return;
+        }
+
+        // A header that does not match the data file means the journal was
+        // already folded in (crash between rename and truncate) - discard it
+        if (!entries.get(0).equals(journalHeader())) {
+            System.err.println("Discarding stale journal for " + fileName);
+            resetJournal();
+            return;
+        }
+
+        for (String entry : entries.subList(1, entries.size())) {
+            try {
+                applyEntry(entry);
+            } catch (RuntimeException e) {
+                System.err.println("Skipping bad journal entry for " + fileName + ": " + entry);
+            }
+        }
+        // New entries must not be appended behind the torn tail: fold the
+        // journal into the data file now instead
+        if (tornTailKept) rewriteDataFile();
+    }
+
+    private void applyEntry(String entry) {
+        char op = entry.charAt(0);
+        String body = entry.substring(2);
+        switch (op) {
+            case 'A':
+                addSlot(body);
+                break;
+            case 'S': {
+                int bar = body.indexOf('|');
+                setSlot(Integer.parseInt(body.substring(0, bar)), body.substring(bar + 1));
+                break;
+            }
+            case 'X':
+                setSlot(Integer.parseInt(body), null);
+                break;
+            default:
+                throw new IllegalArgumentException("Unknown journal op " + op);
+        }
+    }
+
+    // ==========================================
+    // DISK I/O
+    // ==========================================
+    /**
+     * @return false if neither the journal nor a rewrite of the data file succeeded
+     */
+    private boolean journalWrite(List<String> entries) {
+        try {
+            if (journal.isEmpty()) {
+                List<String> withHeader = new ArrayList<>(entries.size() + 1);
+                withHeader.add(journalHeader());
+                withHeader.addAll(entries);
+                entries = withHeader;
+            }
+            journal.append(entries);
+        } catch (IOException e) {
+            // Journal unavailable - fall back to rewriting the whole file
+            System.err.println("Error writing journal for " + fileName + ": " + e.getMessage());
+            return rewriteDataFile();
+        }
+        if (journal.size() > COMPACT_THRESHOLD_BYTES && !compactionQueued) {
+            compactionQueued = true;
+            COMPACTOR.execute(this::compact);
+        }
+        return true;
+    }
+
+    private boolean appendToDisk(List<String> lines) {
+        long before = new File(fileName).length();
+        try (BufferedWriter writer = new BufferedWriter(new FileWriter(fileName, true))) {
+            for (String line : lines) {
+                writer.write(line);
+                writer.newLine();
+            }
+        } catch (IOException e) {
+            System.err.println("Error writing to file " + fileName + ": " + e.getMessage());
+            // Drop any part that did get written, so the file still matches the slots
+            try (RandomAccessFile raf = new RandomAccessFile(fileName, "rw")) {
+                if (raf.length() > before) raf.setLength(before);
+            } catch (IOException ignored) {
+                // The checksum in the next journal header will not match; replay discards it
+            }
+            return false;
+        }
+        for (String line : lines) recordBaseLine(line);
+        return true;
+    }
+
+    /**
+     * Writes all live lines to the data file, then renumbers the slots and
+     * truncates the journal. If the write fails nothing changes: the
+     * journal's slot positions still match the slots, so it stays valid
+     * for replay.
+     *
+     * @return false if the data file could not be written
+     */
+    private boolean rewriteDataFile() {
+        if (!writeDataFile(slots)) return false;
+        // The data file now holds exactly the live lines, in slot order
+        compactSlots();
+        rebase();
+        return true;
+    }
+
+    /**
+     * Writes lines (skipping null slots) to a temp file and atomically
+     * renames it over the data file
+     *
+     * @return false if the data file could not be replaced (it is unchanged)
+     */
+    private boolean writeDataFile(List<String> lines) {
+        Path target = Paths.get(fileName);
+        Path temp = Paths.get(fileName + ".tmp");
+        try {
+            try (FileOutputStream out = new FileOutputStream(temp.toFile());
+                 BufferedWriter writer = new BufferedWriter(
+                     new OutputStreamWriter(out, Charset.defaultCharset()))) {
+                for (String line : lines) {
+                    if (line == null) continue;
+                    writer.write(line);
+                    writer.newLine();
+                }
+                writer.flush();
+                out.getChannel().force(false);
+            }
+            try {
+                Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            } catch (AtomicMoveNotSupportedException e) {
+                Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING);
+            }
+            return true;
+        } catch (IOException e) {
+            System.err.println("Error overwriting file " + fileName + ": " + e.getMessage());
+            return false;
+        }
+    }
+
+    // The slots now match the data file: record its checksum and drop the journal
+    private void rebase() {
+        baseChecksum.reset();
+        baseLines = 0;
+        for (String line : slots) recordBaseLine(line);
+        resetJournal();
+    }
+
+    private void resetJournal() {
+        try {
+            journal.clear();
+        } catch (IOException e) {
+            System.err.println("Error clearing journal for " + fileName + ": " + e.getMessage());
+        }
+    }
+
+    /**
+     * Drops the null slots left by deletes; only valid once the data file
+     * has been rewritten and the journal is about to be truncated, since
+     * journal entries refer to slot positions
+     */
+    private void compactSlots() {
+        if (liveCount == slots.size()) return;
+        List<String> live = lines();
+        clear();
+        for (String line : live) addSlot(line);
+    }
+
+    private void recordBaseLine(String line) {
+        // Same encoding as the data file, so the value matches what is read back
+        baseChecksum.update(line.getBytes(Charset.defaultCharset()));
+        baseChecksum.update('\n');
+        baseLines++;
+    }
+
+    private String journalHeader() {
+        return "H|" + Long.toHexString(baseChecksum.getValue()) + "|" + baseLines;
+    }
+}
@@ -0,0 +1,202 @@
+import java.util.*;
+import java.util.concurrent.*;
+
+/**
+ * ReportAggregate.java - Single-Pass Report Engine
+ * Computes everything the Academic Leader reports need from results.txt in
+ * one scan: per module count, sum, min, max, pass/fail and a grade
+ * histogram. The grade distribution and pass/fail reports are served from
+ * the same aggregate instead of each re-reading the file.
+ *
+ * Each student counts once per module, graded on their weighted module
+ * total from WeightedGradeEngine rather than on individual result rows.
+ *
+ * Parallel mode runs both stages on the ForkJoinPool: the totals pass over
+ * results.txt, then grading, where each module's students are split into
+ * chunks whose partial summaries (counts, sums, min/max, grade histogram)
+ * are merged. compareModes() runs both paths on the same data.
+ */
+public class ReportAggregate {
+
+    public static final double PASS_MARK = 50;
+
+    // ==========================================
+    // PER-MODULE SUMMARY
+    // ==========================================
+    public static class ModuleSummary {
+        public int count;
+        public double sum;
+        public double min = Double.POSITIVE_INFINITY;
+        public double max = Double.NEGATIVE_INFINITY;
+        public int pass;
+        public int fail;
+        public final int[] gradeCounts;
+
+        ModuleSummary(int grades) {
+            this.gradeCounts = new int[grades];
+        }
+
+        public double average() {
+            return count == 0 ? 0 : sum / count;
+        }
+
+        /**
+         * Folds another partial summary of the same module into this one
+         */
+        void merge(ModuleSummary other) {
+            count += other.count;
+            sum += other.sum;
+            min = Math.min(min, other.min);
+            max = Math.max(max, other.max);
+            pass += other.pass;
+            fail += other.fail;
+            for (int i = 0; i < gradeCounts.length; i++) gradeCounts[i] += other.gradeCounts[i];
+        }
+    }
+
+    private final List<String> gradeNames;
+    private final Map<String, Integer> gradeIndex = new HashMap<>();
+    private final GradingScale scale;
+    private final Map<String, ModuleSummary> modules = new LinkedHashMap<>();
+
+    private ReportAggregate(Collection<String> moduleIDs, GradingScale scale) {
+        this.scale = scale;
+        // Distinct grade names in grading.txt order
+        this.gradeNames = new ArrayList<>(new LinkedHashSet<>(scale.getGradeNames()));
+        for (int i = 0; i < gradeNames.size(); i++) gradeIndex.put(gradeNames.get(i), i);
+        for (String id : moduleIDs) modules.put(id, new ModuleSummary(gradeNames.size()));
+    }
+
+    // ==========================================
+    // BUILD (One Pass Over results.txt)
+    // ==========================================
+    /**
+     * Aggregates the weighted module totals of every student in the given modules
+     *
+     * @param moduleIDs Modules to include (report order)
+     * @param parallel true to compute the modules' totals concurrently
+     * @return The aggregate for those modules
+     */
+    public static ReportAggregate build(Collection<String> moduleIDs, boolean parallel) {
+        ReportAggregate agg = new ReportAggregate(moduleIDs, GradingScale.current());
+        Map<String, Map<String, Double>> totals = WeightedGradeEngine.computeTotals(moduleIDs, parallel);
+
+        if (!parallel) {
+            for (Map.Entry<String, Map<String, Double>> module : totals.entrySet()) {
+                ModuleSummary summary = agg.modules.get(module.getKey());
+                for (double total : module.getValue().values()) {
+                    agg.add(summary, total);
+                }
+            }
+            return agg;
+        }
+
+        // One work unit per module per chunk of students
+        List<GradeTask> tasks = new ArrayList<>();
+        for (Map.Entry<String, Map<String, Double>> module : totals.entrySet()) {
+            double[] values = new double[module.getValue().size()];
+            int i = 0;
+            for (double total : module.getValue().values()) values[i++] = total;
+            for (int from = 0; from < values.length; from += WeightedGradeEngine.CHUNK_SIZE) {
+                tasks.add(new GradeTask(agg, module.getKey(), values, from,
+                    Math.min(values.length, from + WeightedGradeEngine.CHUNK_SIZE)));
+            }
+        }
+        for (GradeTask task : ForkJoinTask.invokeAll(tasks)) {
+            agg.modules.get(task.moduleID).merge(task.join());
+        }
+        return agg;
+    }
+
+    /**
+     * Grades one chunk of a module's student totals into a partial summary
+     */
+    private static class GradeTask extends RecursiveTask<ModuleSummary> {
+        private final ReportAggregate agg;
+        private final String moduleID;
+        private final double[] totals;
+        private final int from, to;
+
+        GradeTask(ReportAggregate agg, String moduleID, double[] totals, int from, int to) {
+            this.agg = agg;
+            this.moduleID = moduleID;
+            this.totals = totals;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected ModuleSummary compute() {
+            ModuleSummary partial = new ModuleSummary(agg.gradeNames.size());
+            for (int i = from; i < to; i++) agg.add(partial, totals[i]);
+            return partial;
+        }
+    }
+
+    // ==========================================
+    // SEQUENTIAL vs PARALLEL
+    // ==========================================
+    /**
+     * Builds the aggregate both ways on the same data and reports timings
+     * and whether the two agree
+     */
+    public static String compareModes(Collection<String> moduleIDs) {
+        // Warm-up so the first timed run does not pay for class loading
+        build(moduleIDs, false);
+        build(moduleIDs, true);
+
+        long t0 = System.nanoTime();
+        ReportAggregate sequential = build(moduleIDs, false);
+        long t1 = System.nanoTime();
+        ReportAggregate parallel = build(moduleIDs, true);
+        long t2 = System.nanoTime();
+
+        boolean same = sequential.getGradeDistribution().equals(parallel.getGradeDistribution());
+        for (String id : moduleIDs) {
+            ModuleSummary a = sequential.getModule(id), b = parallel.getModule(id);
+            same &= a.count == b.count && a.pass == b.pass && a.fail == b.fail
+                    && Math.abs(a.sum - b.sum) < 1e-6 * Math.max(1, Math.abs(a.sum));
+        }
+
+        return String.format("Sequential: %.2f ms%nParallel (%d threads): %.2f ms%nResults match: %s%n",
+            (t1 - t0) / 1e6, ForkJoinPool.commonPool().getParallelism(), (t2 - t1) / 1e6, same ? "yes" : "NO");
+    }
+
+    private void add(ModuleSummary s, double marks) {
+        s.count++;
+        s.sum += marks;
+        if (marks < s.min) s.min = marks;
+        if (marks > s.max) s.max = marks;
+        if (marks >= PASS_MARK) s.pass++; else s.fail++;
+        Integer g = gradeIndex.get(scale.gradeFor(marks));
+        if (g != null) s.gradeCounts[g]++;
+    }
+
+    // ==========================================
+    // ACCESSORS
+    // ==========================================
+    public ModuleSummary getModule(String moduleID) {
+        return modules.get(moduleID);
+    }
+
+    public Set<String> getModuleIDs() {
+        return modules.keySet();
+    }
+
+    /**
+     * Grade counts summed over all modules, in grading.txt order
+     */
+    public Map<String, Integer> getGradeDistribution() {
+        Map<String, Integer> dist = new LinkedHashMap<>();
+        for (int i = 0; i < gradeNames.size(); i++) {
+            int total = 0;
+            for (ModuleSummary s : modules.values()) total += s.gradeCounts[i];
+            dist.put(gradeNames.get(i), total);
+        }
+        return dist;
+    }
+
+    public GradingScale getScale() {
+        return scale;
+    }
+}
@@ -0,0 +1,430 @@
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+import java.util.*;
+import java.util.zip.CRC32;
+import java.util.zip.CheckedOutputStream;
+
+/**
+ * ResultsColumnFile.java - Binary Columnar Copy of results.txt
+ * An optional, compact form of results.txt
+ * (studentID|moduleID|assessmentID|marks|feedback) for scanning very large
+ * result sets. Each row is stored as fixed-width columns:
+ *
+ *   student, module, assessment   int codes into per-column ID dictionaries
+ *   marks                         float
+ *   feedback                      offset into a UTF-8 side heap
+ *
+ * so a scan reads primitive arrays instead of parsing text (see
+ * markTotalsByModule, behind "java Main --results-summary"). results.txt
+ * stays the master copy; exportResults() and importResults() convert
+ * between the two without losing anything. A row that would not come back
+ * byte-for-byte from its columns (e.g. marks written as "72.50", a missing
+ * feedback field, a malformed line) also keeps its original line, which is
+ * what toLines() returns for it.
+ *
+ * File layout (big-endian): "AFSR", version, row count, the three
+ * dictionaries, the four int/float columns, the feedback heap, the raw
+ * line overrides, then a CRC32 of everything before it.
+ */
+public final class ResultsColumnFile {
+
+    public static final String DEFAULT_FILE = "results.bin";
+    private static final int MAGIC = 0x41465352; // "AFSR"
+    private static final int VERSION = 1;
+
+    // ID dictionaries: code -> ID
+    private final String[] students;
+    private final String[] modules;
+    private final String[] assessments;
+    // Columns, one entry per row; -1 / NaN where a malformed row has no value
+    private final int[] studentCol;
+    private final int[] moduleCol;
+    private final int[] assessmentCol;
+    private final float[] marksCol;
+    // Feedback of row i is heap[offsets[i], offsets[i + 1])
+    private final int[] feedbackOffsets;
+    private final byte[] feedbackHeap;
+    // Rows kept verbatim, sorted by row number
+    private final int[] rawRows;
+    private final String[] rawLines;
+
+    private ResultsColumnFile(String[] students, String[] modules, String[] assessments,
+                              int[] studentCol, int[] moduleCol, int[] assessmentCol, float[] marksCol,
+                              int[] feedbackOffsets, byte[] feedbackHeap, int[] rawRows, String[] rawLines) {
+        this.students = students;
+        this.modules = modules;
+        this.assessments = assessments;
+        this.studentCol = studentCol;
+        this.moduleCol = moduleCol;
+        this.assessmentCol = assessmentCol;
+        this.marksCol = marksCol;
+        this.feedbackOffsets = feedbackOffsets;
+        this.feedbackHeap = feedbackHeap;
+        this.rawRows = rawRows;
+        this.rawLines = rawLines;
+    }
+
+    // ==========================================
+    // 1. TEXT -> COLUMNS
+    // ==========================================
+    /**
+     * Encodes results.txt lines into columns
+     */
+    public static ResultsColumnFile fromLines(List<String> lines) {
+        Builder builder = new Builder(lines.size());
+        for (String line : lines) builder.add(line);
+        return builder.build();
+    }
+
+    /**
+     * Collects rows into growing columns and dictionaries
+     */
+    private static class Builder {
+        private final Map<String, Integer> studentCodes = new HashMap<>();
+        private final Map<String, Integer> moduleCodes = new HashMap<>();
+        private final Map<String, Integer> assessmentCodes = new HashMap<>();
+        private int[] studentCol, moduleCol, assessmentCol, feedbackOffsets;
+        private float[] marksCol;
+        private final ByteArrayOutputStream heap = new ByteArrayOutputStream();
+        private final List<Integer> rawRows = new ArrayList<>();
+        private final List<String> rawLines = new ArrayList<>();
+        private int rows;
+
+        Builder(int capacity) {
+            capacity = Math.max(capacity, 16);
+            studentCol = new int[capacity];
+            moduleCol = new int[capacity];
+            assessmentCol = new int[capacity];
+            marksCol = new float[capacity];
+            feedbackOffsets = new int[capacity + 1];
+        }
+
+        void add(String line) {
+            if (rows == marksCol.length) grow();
+            String student = Fields.get(line, 0), module = Fields.get(line, 1), assessment = Fields.get(line, 2);
+            float marks = (float) Fields.parseDouble(line, 3, Double.NaN);
+            String feedback = "";
+
+            // Feedback is everything after the fourth '|', so it is kept as written
+            int bar = -1;
+            for (int i = 0; i < 4; i++) {
+                bar = line.indexOf('|', bar + 1);
+                if (bar < 0) break;
+            }
+            boolean exact = false;
+            if (bar >= 0 && student != null && module != null && assessment != null && !Float.isNaN(marks)) {
+                feedback = line.substring(bar + 1);
+                exact = line.equals(student + "|" + module + "|" + assessment + "|" + formatMarks(marks) + "|" + feedback);
+            }
+            if (!exact) {
+                rawRows.add(rows);
+                rawLines.add(line);
+                feedback = "";
+            }
+
+            studentCol[rows] = code(studentCodes, student);
+            moduleCol[rows] = code(moduleCodes, module);
+            assessmentCol[rows] = code(assessmentCodes, assessment);
+            marksCol[rows] = marks;
+            byte[] bytes = feedback.getBytes(StandardCharsets.UTF_8);
+            heap.write(bytes, 0, bytes.length);
+            feedbackOffsets[++rows] = heap.size();
+        }
+
+        private static int code(Map<String, Integer> codes, String id) {
+            if (id == null) return -1;
+            Integer code = codes.get(id);
+            if (code == null) {
+                code = codes.size();
+                codes.put(id, code);
+            }
+            return code;
+        }
+
+        private void grow() {
+            int capacity = marksCol.length * 2;
+            studentCol = Arrays.copyOf(studentCol, capacity);
+            moduleCol = Arrays.copyOf(moduleCol, capacity);
+            assessmentCol = Arrays.copyOf(assessmentCol, capacity);
+            marksCol = Arrays.copyOf(marksCol, capacity);
+            feedbackOffsets = Arrays.copyOf(feedbackOffsets, capacity + 1);
+        }
+
+        ResultsColumnFile build() {
+            int[] raw = new int[rawRows.size()];
+            for (int i = 0; i < raw.length; i++) raw[i] = rawRows.get(i);
+            return new ResultsColumnFile(dictionary(studentCodes), dictionary(moduleCodes),
+                dictionary(assessmentCodes), Arrays.copyOf(studentCol, rows), Arrays.copyOf(moduleCol, rows),
+                Arrays.copyOf(assessmentCol, rows), Arrays.copyOf(marksCol, rows),
+                Arrays.copyOf(feedbackOffsets, rows + 1), heap.toByteArray(), raw, rawLines.toArray(new String[0]));
+        }
+
+        private static String[] dictionary(Map<String, Integer> codes) {
+            String[] ids = new String[codes.size()];
+            for (Map.Entry<String, Integer> e : codes.entrySet()) ids[e.getValue()] = e.getKey();
+            return ids;
+        }
+    }
+
+    /**
+     * How marks are written back as text: "72" for whole numbers, else Float.toString ("72.5")
+     */
+    static String formatMarks(float marks) {
+        if (marks == Math.rint(marks) && Math.abs(marks) < 1e9f && !(marks == 0 && 1 / marks < 0)) {
+            return Long.toString((long) marks);
+        }
+        return Float.toString(marks);
+    }
+
+    // ==========================================
+    // 2. COLUMNS -> TEXT
+    // ==========================================
+    /**
+     * @return The original results.txt lines, in order
+     */
+    public List<String> toLines() {
+        List<String> lines = new ArrayList<>(size());
+        int nextRaw = 0;
+        for (int row = 0; row < size(); row++) {
+            if (nextRaw < rawRows.length && rawRows[nextRaw] == row) {
+                lines.add(rawLines[nextRaw++]);
+                continue;
+            }
+            lines.add(getStudentID(row) + "|" + getModuleID(row) + "|" + getAssessmentID(row)
+                      + "|" + formatMarks(marksCol[row]) + "|" + getFeedback(row));
+        }
+        return lines;
+    }
+
+    // ==========================================
+    // 3. ROW ACCESS
+    // ==========================================
+    public int size() { return marksCol.length; }
+
+    public String getStudentID(int row)    { return idOf(students, studentCol[row]); }
+    public String getModuleID(int row)     { return idOf(modules, moduleCol[row]); }
+    public String getAssessmentID(int row) { return idOf(assessments, assessmentCol[row]); }
+
+    /**
+     * @return The row's marks, or NaN if the row had no numeric marks
+     */
+    public float getMarks(int row) { return marksCol[row]; }
+
+    public String getFeedback(int row) {
+        return new String(feedbackHeap, feedbackOffsets[row],
+                          feedbackOffsets[row + 1] - feedbackOffsets[row], StandardCharsets.UTF_8);
+    }
+
+    private static String idOf(String[] dictionary, int code) {
+        return code < 0 ? null : dictionary[code];
+    }
+
+    // ==========================================
+    // 4. COLUMN SCANS
+    // ==========================================
+    /**
+     * Count, sum, min and max of marks per module, from the module and marks
+     * columns only
+     *
+     * @return moduleID -> {count, sum, min, max}
+     */
+    public Map<String, double[]> markTotalsByModule() {
+        double[][] acc = new double[modules.length][];
+        for (int row = 0; row < marksCol.length; row++) {
+            int module = moduleCol[row];
+            float marks = marksCol[row];
+            if (module < 0 || Float.isNaN(marks)) continue;
+            double[] a = acc[module];
+            if (a == null) {
+                a = acc[module] = new double[]{0, 0, marks, marks};
+            }
+            a[0]++;
+            a[1] += marks;
+            a[2] = Math.min(a[2], marks);
+            a[3] = Math.max(a[3], marks);
+        }
+        Map<String, double[]> totals = new LinkedHashMap<>();
+        for (int code = 0; code < acc.length; code++) {
+            if (acc[code] != null) totals.put(modules[code], acc[code]);
+        }
+        return totals;
+    }
+
+    // ==========================================
+    // 5. BINARY FILE I/O
+    // ==========================================
+    /**
+     * Writes the columns to a temp file and renames it over path
+     */
+    public void write(String path) throws IOException {
+        Path target = Paths.get(path);
+        Path temp = Paths.get(path + ".tmp");
+        CRC32 crc = new CRC32();
+        try (FileOutputStream file = new FileOutputStream(temp.toFile());
+             DataOutputStream out = new DataOutputStream(new CheckedOutputStream(
+                 new BufferedOutputStream(file, 1 << 16), crc))) {
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+            out.writeInt(size());
+            writeStrings(out, students);
+            writeStrings(out, modules);
+            writeStrings(out, assessments);
+            for (int v : studentCol) out.writeInt(v);
+            for (int v : moduleCol) out.writeInt(v);
+            for (int v : assessmentCol) out.writeInt(v);
+            for (float v : marksCol) out.writeFloat(v);
+            for (int v : feedbackOffsets) out.writeInt(v);
+            out.write(feedbackHeap);
+            out.writeInt(rawRows.length);
+            for (int i = 0; i < rawRows.length; i++) {
+                out.writeInt(rawRows[i]);
+                writeString(out, rawLines[i]);
+            }
+            out.flush();
+            new DataOutputStream(file).writeLong(crc.getValue());
+            file.getChannel().force(false);
+        }
+        try {
+            Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (AtomicMoveNotSupportedException e) {
+            Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+
+    /**
+     * Reads a file written by write(). The checksum is verified over the
+     * whole file before anything is decoded, and every count, length, code
+     * and offset is checked against the data, so a damaged file is
+     * rejected with an IOException.
+     */
+    public static ResultsColumnFile read(String path) throws IOException {
+        long length = Files.size(Paths.get(path));
+        if (length < 20 || length > Integer.MAX_VALUE - 8) throw new IOException(path + " is not a results column file");
+        byte[] data = Files.readAllBytes(Paths.get(path));
+        int body = data.length - 8;
+
+        CRC32 crc = new CRC32();
+        crc.update(data, 0, body);
+        long stored = new DataInputStream(new ByteArrayInputStream(data, body, 8)).readLong();
+
+        ByteArrayInputStream bytes = new ByteArrayInputStream(data, 0, body);
+        DataInputStream in = new DataInputStream(bytes);
+        if (in.readInt() != MAGIC) throw new IOException(path + " is not a results column file");
+        if (in.readInt() != VERSION) throw new IOException("Unsupported version in " + path);
+        if (stored != crc.getValue()) throw new IOException("Checksum mismatch in " + path);
+
+        try {
+            // Four 4-byte columns plus a feedback offset per row
+            int rows = readCount(in, bytes, 20);
+            String[] students = readStrings(in, bytes);
+            String[] modules = readStrings(in, bytes);
+            String[] assessments = readStrings(in, bytes);
+            int[] studentCol = readCodes(in, rows, students.length);
+            int[] moduleCol = readCodes(in, rows, modules.length);
+            int[] assessmentCol = readCodes(in, rows, assessments.length);
+            float[] marksCol = new float[rows];
+            for (int i = 0; i < rows; i++) marksCol[i] = in.readFloat();
+            int[] feedbackOffsets = readInts(in, rows + 1);
+            for (int i = 0; i < rows; i++) {
+                if (feedbackOffsets[i] < 0 || feedbackOffsets[i] > feedbackOffsets[i + 1]) throw corrupt();
+            }
+            if (feedbackOffsets[0] != 0 || feedbackOffsets[rows] > bytes.available()) throw corrupt();
+            byte[] feedbackHeap = new byte[feedbackOffsets[rows]];
+            in.readFully(feedbackHeap);
+            int rawCount = readCount(in, bytes, 8);
+            int[] rawRows = new int[rawCount];
+            String[] rawLines = new String[rawCount];
+            for (int i = 0; i < rawCount; i++) {
+                rawRows[i] = in.readInt();
+                if (rawRows[i] < 0 || rawRows[i] >= rows || i > 0 && rawRows[i] <= rawRows[i - 1]) throw corrupt();
+                rawLines[i] = readString(in, bytes);
+            }
+            if (bytes.available() != 0) throw corrupt();
+            return new ResultsColumnFile(students, modules, assessments, studentCol, moduleCol,
+                assessmentCol, marksCol, feedbackOffsets, feedbackHeap, rawRows, rawLines);
+        } catch (EOFException e) {
+            throw new IOException("Truncated data in " + path);
+        } catch (IOException e) {
+            throw new IOException(e.getMessage() + " in " + path);
+        }
+    }
+
+    private static IOException corrupt() {
+        return new IOException("Inconsistent data");
+    }
+
+    /**
+     * Reads a count, checking that count items of at least bytesEach bytes
+     * fit in what is left of the file
+     */
+    private static int readCount(DataInputStream in, ByteArrayInputStream bytes, int bytesEach) throws IOException {
+        int count = in.readInt();
+        if (count < 0 || (long) count * bytesEach > bytes.available()) throw corrupt();
+        return count;
+    }
+
+    // Codes into a dictionary of the given size; -1 marks a missing value
+    private static int[] readCodes(DataInputStream in, int count, int dictionarySize) throws IOException {
+        int[] codes = readInts(in, count);
+        for (int code : codes) {
+            if (code < -1 || code >= dictionarySize) throw corrupt();
+        }
+        return codes;
+    }
+
+    private static void writeStrings(DataOutputStream out, String[] values) throws IOException {
+        out.writeInt(values.length);
+        for (String v : values) writeString(out, v);
+    }
+
+    private static void writeString(DataOutputStream out, String value) throws IOException {
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    private static String[] readStrings(DataInputStream in, ByteArrayInputStream bytes) throws IOException {
+        // Each string has at least its 4-byte length
+        String[] values = new String[readCount(in, bytes, 4)];
+        for (int i = 0; i < values.length; i++) values[i] = readString(in, bytes);
+        return values;
+    }
+
+    private static String readString(DataInputStream in, ByteArrayInputStream bytes) throws IOException {
+        byte[] value = new byte[readCount(in, bytes, 1)];
+        in.readFully(value);
+        return new String(value, StandardCharsets.UTF_8);
+    }
+
+    private static int[] readInts(DataInputStream in, int count) throws IOException {
+        int[] values = new int[count];
+        for (int i = 0; i < count; i++) values[i] = in.readInt();
+        return values;
+    }
+
+    // ==========================================
+    // 6. results.txt BRIDGE
+    // ==========================================
+    /**
+     * Writes the current results.txt to a binary file
+     *
+     * @return Number of rows written
+     */
+    public static int exportResults(String binFile) throws IOException {
+        ResultsColumnFile columns = fromLines(Helpers.readFromFile("results.txt"));
+        columns.write(binFile);
+        return columns.size();
+    }
+
+    /**
+     * Replaces results.txt with the rows of a binary file
+     *
+     * @return Number of rows imported
+     */
+    public static int importResults(String binFile) throws IOException {
+        List<String> lines = read(binFile).toLines();
+        Helpers.overwriteFile("results.txt", lines);
+        return lines.size();
+    }
+}
@@ -0,0 +1,121 @@
+import java.util.*;
+
+/**
+ * SequenceAllocator.java - Persistent ID Sequences
+ * Hands out IDs like STU07 or MOD104 from a per-prefix counter instead of
+ * scanning the target file on every insert.
+ *
+ * File: sequences.txt  format: prefix@fileName|highWater
+ * The high-water mark is persisted before IDs are handed out, so an ID is
+ * never reused after a restart. On first use of a counter in a session it
+ * is also checked against the IDs already in the target file, which
+ * recovers counters that are missing or behind (e.g. after sequences.txt
+ * was deleted or data was copied in by hand).
+ */
+public class SequenceAllocator {
+
+    private static final String SEQUENCE_FILE = "sequences.txt";
+
+    // Counters already recovered this session: key -> last ID number handed out
+    private static final Map<String, Integer> highWater = new HashMap<>();
+
+    // ==========================================
+    // 1. NEXT ID
+    // ==========================================
+    /**
+     * Allocates the next ID for a prefix
+     *
+     * @param prefix The ID prefix (e.g., "STU", "LEC", "AL", "MOD", "AS", "CLS")
+     * @param fileName The file the IDs are stored in (e.g., "users.txt")
+     * @return The new ID (e.g., "STU06")
+     */
+    public static synchronized String next(String prefix, String fileName) {
+        return nextBlock(prefix, fileName, 1).get(0);
+    }
+
+    // ==========================================
+    // 2. BLOCK OF IDS
+    // ==========================================
+    /**
+     * Allocates a contiguous block of IDs with a single persisted update
+     * (used for bulk inserts)
+     *
+     * @param prefix The ID prefix
+     * @param fileName The file the IDs are stored in
+     * @param count How many IDs to allocate
+     * @return The new IDs in ascending order
+     */
+    public static synchronized List<String> nextBlock(String prefix, String fileName, int count) {
+        List<String> ids = new ArrayList<>(count);
+        if (count <= 0) return ids;
+
+        String key = prefix + "@" + fileName;
+        int first = recover(key, prefix, fileName) + 1;
+        int last = first + count - 1;
+
+        // Persist the new high-water mark before handing out any ID
+        String record = key + "|" + last;
+        if (!Helpers.updateRecord(SEQUENCE_FILE, key, record)) {
+            Helpers.writeToFile(SEQUENCE_FILE, record);
+        }
+        highWater.put(key, last);
+
+        for (int n = first; n <= last; n++) ids.add(format(prefix, n));
+        return ids;
+    }
+
+    // ==========================================
+    // 3. FORMAT
+    // ==========================================
+    /**
+     * Formats an ID number with the prefix's minimum width.
+     * Modules use 3 digits (MOD101), everything else 2 (STU01); numbers past
+     * the width simply widen (STU100, MOD1000) so they never wrap or collide.
+     */
+    public static String format(String prefix, int number) {
+        int width = prefix.equals("MOD") ? 3 : 2;
+        String digits = Integer.toString(number);
+        StringBuilder sb = new StringBuilder(prefix);
+        for (int i = digits.length(); i < width; i++) sb.append('0');
+        return sb.append(digits).toString();
+    }
+
+    // ==========================================
+    // RECOVERY
+    // ==========================================
+    private static int recover(String key, String prefix, String fileName) {
+        Integer known = highWater.get(key);
+        if (known != null) return known;
+
+        int persisted = 0;
+        String line = Helpers.findRecord(SEQUENCE_FILE, key);
+        if (line != null) {
+            String value = Fields.get(line, 1);
+            if (value != null) {
+                try { persisted = Integer.parseInt(value); }
+                catch (NumberFormatException e) { persisted = 0; }
+            }
+        }
+
+        int recovered = Math.max(persisted, maxExistingNumber(prefix, fileName));
+        highWater.put(key, recovered);
+        return recovered;
+    }
+
+    /**
+     * Highest numeric suffix among the IDs in fileName that start with prefix
+     */
+    private static int maxExistingNumber(String prefix, String fileName) {
+        int maxNum = 0;
+        for (String id : RecordStore.of(fileName).keys()) {
+            if (!id.startsWith(prefix)) continue;
+            try {
+                int num = Integer.parseInt(id.substring(prefix.length()));
+                if (num > maxNum) maxNum = num;
+            } catch (NumberFormatException e) {
+                // Skip if the ID doesn't follow expected format
+            }
+        }
+        return maxNum;
+    }
+}
@@ -1,5 +1,5 @@
-import java.util.ArrayList;
 import java.util.List;
+import java.util.Set;
 
 public class Student {
     private String id;
@@ -27,102 +27,52 @@ public class Student {
 
     // REGISTER FOR CLASSES
     public boolean registerForClasses(String classID) {
-        // Prevent duplicate enrollment
-        List<String> enrollments = Helpers.readFromFile("enrollments.txt");
-        for (String line : enrollments) {
-            String[] parts = line.split("\\|");
-            // Format: studentID|classID
-            if (parts.length >= 2 && parts[0].equals(this.id) && parts[1].equals(classID)) {
-                return false; // Already enrolled
-            }
-        }
-
-        // Save to enrollments.txt
+        // Save to enrollments.txt unless already enrolled (studentID index, not
+        // a full scan); checked and written in one step
+        // Format: studentID|classID
         String record = this.id + "|" + classID;
-        Helpers.writeToFile("enrollments.txt", record);
-        return true;
+        return Helpers.writeToFileUnless("enrollments.txt", 0, this.id,
+            line -> Fields.equals(line, 1, classID), record);
     }
 
     // SUBMIT COMMENTS
-    public void submitComments(String lecturerID, String comment) {
+    public boolean submitComments(String lecturerID, String comment) {
         // Format: studentID|lecturerID|comment (Page 12)
         String record = this.id + "|" + lecturerID + "|" + comment;
-        Helpers.writeToFile("comments.txt", record);
+        return Helpers.writeToFile("comments.txt", record);
     }
 
     // UPDATE PROFILE
-    public void updateProfile(String newPass, String newName, String newGender, String newEmail, String newPhone, String newAge) {
-        List<String> users = Helpers.readFromFile("users.txt");
-        List<String> updatedUsers = new ArrayList<>();
-
-        for (String line : users) {
-            String[] parts = line.split("\\|");
-            if (parts[0].equals(this.id)) {
-                // Replace with new data, keeping ID and Role (index 1) same
-                String updatedLine = this.id + "|Student|" + newPass + "|" + newName + "|" + newGender + "|" + newEmail + "|" + newPhone + "|" + newAge;
-                updatedUsers.add(updatedLine);
-                
-                // Update local object
-                this.password = newPass;
-                this.name = newName;
-                this.gender = newGender;
-                this.email = newEmail;
-                this.phone = newPhone;
-                this.age = newAge;
-            } else {
-                updatedUsers.add(line);
-            }
+    public boolean updateProfile(String newPass, String newName, String newGender, String newEmail, String newPhone, String newAge) {
+        // Another user already has this email
+        if (Helpers.emailTaken(newEmail, this.id)) {
+            return false;
         }
 
+        // Replace with new data, keeping ID and Role (index 1) same
+        String updatedLine = this.id + "|Student|" + newPass + "|" + newName + "|" + newGender + "|" + newEmail + "|" + newPhone + "|" + newAge;
 
-        try (java.io.BufferedWriter bw = new java.io.BufferedWriter(new java.io.FileWriter("users.txt"))) {
-            for (String line : updatedUsers) {
-                bw.write(line);
-                bw.newLine();
-            }
-        } catch (java.io.IOException e) { e.printStackTrace(); }
+        if (Helpers.updateRecord("users.txt", this.id, updatedLine)) {
+            // Update local object
+            this.password = newPass;
+            this.name = newName;
+            this.gender = newGender;
+            this.email = newEmail;
+            this.phone = newPhone;
+            this.age = newAge;
+            return true;
+        }
+        return false;
     }
 
     // VIEW RESULTS 
     public List<String[]> viewResults() {
-        List<String[]> myResults = new ArrayList<>();
-        
-        // Step A: Get Class IDs from enrollments.txt
-        List<String> myClassIDs = new ArrayList<>();
-        List<String> enrollments = Helpers.readFromFile("enrollments.txt");
-        for (String line : enrollments) {
-            String[] parts = line.split("\\|");
-            if (parts[0].equals(this.id)) {
-                myClassIDs.add(parts[1]); // Found classID
-            }
-        }
-
-        // Step B: Get Module IDs from classes.txt using Class IDs
-        List<String> myModuleIDs = new ArrayList<>();
-        List<String> classes = Helpers.readFromFile("classes.txt");
-        for (String line : classes) {
-            String[] parts = line.split("\\|");
-            // Format: classID|className|moduleID
-            if (parts.length >= 3 && myClassIDs.contains(parts[0])) {
-                myModuleIDs.add(parts[2]); // Found moduleID
-            }
-        }
+        // Indexed join: my enrollments -> their classes' modules -> my results in those modules
+        return RecordJoin.studentTranscript(this.id);
+    }
 
-        // Step C: Filter results.txt
-        List<String> results = Helpers.readFromFile("results.txt");
-        for (String line : results) {
-            String[] parts = line.split("\\|");
-            // Format: studentID|moduleID|assessmentID|marks|feedback
-            if (parts.length >= 5) {
-                String rStuID = parts[0];
-                String rModID = parts[1];
-                
-                if (rStuID.equals(this.id) && myModuleIDs.contains(rModID)) {
-                    // Add to list for display
-                    myResults.add(parts);
-                }
-            }
-        }
-        return myResults;
+    // Modules whose results viewResults() includes
+    public Set<String> getEnrolledModules() {
+        return RecordJoin.studentModules(this.id);
     }
 }
\ No newline at end of file
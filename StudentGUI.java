@@ -3,7 +3,10 @@ import javax.swing.table.DefaultTableModel;
 import java.awt.*;
 import java.awt.event.ActionEvent;
 import java.awt.event.ActionListener;
+import java.awt.event.WindowAdapter;
+import java.awt.event.WindowEvent;
 import java.util.List;
+import java.util.Set;
 
 public class StudentGUI extends JFrame {
     private Student currentStudent;
@@ -64,8 +67,11 @@ public class StudentGUI extends JFrame {
         int option = JOptionPane.showConfirmDialog(null, message, "Update Profile", JOptionPane.OK_CANCEL_OPTION);
         if (option == JOptionPane.OK_OPTION) {
             if(Helpers.validateEmail(txtEmail.getText())) {
-                currentStudent.updateProfile("newPass123", txtName.getText(), "Male", txtEmail.getText(), txtPhone.getText(), txtAge.getText());
-                JOptionPane.showMessageDialog(this, "Profile Updated.");
+                if (currentStudent.updateProfile("newPass123", txtName.getText(), "Male", txtEmail.getText(), txtPhone.getText(), txtAge.getText())) {
+                    JOptionPane.showMessageDialog(this, "Profile Updated.");
+                } else {
+                    JOptionPane.showMessageDialog(this, "Update failed. The email may already be in use.");
+                }
             } else {
                 JOptionPane.showMessageDialog(this, "Invalid Email.");
             }
@@ -99,8 +105,11 @@ public class StudentGUI extends JFrame {
 
         int option = JOptionPane.showConfirmDialog(null, message, "Submit Feedback", JOptionPane.OK_CANCEL_OPTION);
         if (option == JOptionPane.OK_OPTION) {
-            currentStudent.submitComments(txtLecID.getText(), txtComment.getText());
-            JOptionPane.showMessageDialog(this, "Feedback submitted.");
+            if (currentStudent.submitComments(txtLecID.getText(), txtComment.getText())) {
+                JOptionPane.showMessageDialog(this, "Feedback submitted.");
+            } else {
+                JOptionPane.showMessageDialog(this, "Could not save feedback.");
+            }
         }
     }
 
@@ -108,6 +117,7 @@ public class StudentGUI extends JFrame {
     private void showResultsWindow() {
         JFrame resFrame = new JFrame("My Results");
         resFrame.setSize(500, 300);
+        resFrame.setDefaultCloseOperation(JFrame.DISPOSE_ON_CLOSE);
         
         String[] columns = {"Module ID", "Assessment ID", "Marks", "Feedback"};
         DefaultTableModel model = new DefaultTableModel(columns, 0);
@@ -119,8 +129,52 @@ public class StudentGUI extends JFrame {
             model.addRow(new Object[]{row[1], row[2], row[3], row[4]});
         }
         
+        // Keep the table current while it is open: marks entered by a
+        // lecturer update just their row instead of re-reading results.txt
+        Set<String> modules = currentStudent.getEnrolledModules();
+        EventBus.Subscription subscription = EventBus.subscribeAsync(EventBus.ResultEvent.class,
+            SwingUtilities::invokeLater, event -> applyResultChange(model, modules, event));
+        resFrame.addWindowListener(new WindowAdapter() {
+            @Override
+            public void windowClosed(WindowEvent e) {
+                subscription.close();
+            }
+        });
+        
         JTable table = new JTable(model);
         resFrame.add(new JScrollPane(table));
         resFrame.setVisible(true);
     }
+    
+    // Apply one results.txt change to the results table, if it is one of mine
+    private void applyResultChange(DefaultTableModel model, Set<String> modules, EventBus.ResultEvent event) {
+        if (!currentStudent.getId().equals(event.getStudentID())) return;
+        
+        int row = -1;
+        String oldLine = event.getOldLine();
+        if (oldLine != null) {
+            String moduleID = Fields.get(oldLine, 1);
+            String assessmentID = Fields.get(oldLine, 2);
+            for (int i = 0; i < model.getRowCount(); i++) {
+                if (model.getValueAt(i, 0).equals(moduleID) && model.getValueAt(i, 1).equals(assessmentID)) {
+                    row = i;
+                    break;
+                }
+            }
+        }
+        
+        String newLine = event.getNewLine();
+        boolean shown = newLine != null && Fields.count(newLine) >= 5 && modules.contains(event.getModuleID());
+        Object[] values = shown
+            ? new Object[]{event.getModuleID(), event.getAssessmentID(), event.getMarks(), event.getFeedback()}
+            : null;
+        
+        if (row >= 0 && shown) {
+            for (int col = 0; col < values.length; col++) model.setValueAt(values[col], row, col);
+        } else if (row >= 0) {
+            model.removeRow(row);
+        } else if (shown) {
+            model.addRow(values);
+        }
+    }
 }
\ No newline at end of file
@@ -0,0 +1,49 @@
+import javax.swing.SwingUtilities;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * SwingChangeRelay.java - RecordStore Change Events for GUI Tables
+ * A change listener that hands a store's change events to a handler on the
+ * Swing event dispatch thread, so an open table can insert, update or
+ * remove just the affected row instead of re-reading the file.
+ * Subscribe it through the logic class (e.g. AdminStaff.addUserListener).
+ *
+ * Each change is a {oldLine, newLine} pair:
+ *   {null, line}   record inserted
+ *   {old,  line}   record updated
+ *   {old,  null}   record deleted
+ *
+ * Changes made in quick succession (e.g. a bulk import) arrive together in
+ * one batch. Unsubscribe it when the table is closed.
+ */
+public class SwingChangeRelay implements RecordStore.ChangeListener {
+
+    public interface Handler {
+        void recordsChanged(List<String[]> changes);
+    }
+
+    private final Handler handler;
+    private List<String[]> pending = new ArrayList<>();
+
+    public SwingChangeRelay(Handler handler) {
+        this.handler = handler;
+    }
+
+    // Called by the store, on whichever thread changed it
+    @Override
+    public synchronized void recordChanged(String oldLine, String newLine) {
+        pending.add(new String[]{oldLine, newLine});
+        // The first change of a batch schedules the delivery
+        if (pending.size() == 1) SwingUtilities.invokeLater(this::deliver);
+    }
+
+    private void deliver() {
+        List<String[]> batch;
+        synchronized (this) {
+            batch = pending;
+            pending = new ArrayList<>();
+        }
+        if (!batch.isEmpty()) handler.recordsChanged(batch);
+    }
+}
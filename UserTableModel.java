@@ -0,0 +1,227 @@
+import javax.swing.table.AbstractTableModel;
+import java.util.*;
+
+/**
+ * UserTableModel.java - Lazy, Paged Table Model for the User List
+ * Holds only the ID codes of the users that match the current filter, in
+ * sort order (an int each). Row data is fetched from users.txt a page at a
+ * time when the table first paints one of its rows, and only the most
+ * recently shown pages are kept, so a 100k-user file costs a 400 KB
+ * int[] plus a few hundred parsed rows instead of 100k Object[] rows.
+ *
+ * Filtering and sorting run in AdminStaff.queryUsers (the "server side");
+ * the GUI runs that in the background and passes the result to setRows().
+ * After that, users.txt change events are applied row by row
+ * (applyChanges), so a create, edit or delete does not re-run the query.
+ */
+public class UserTableModel extends AbstractTableModel {
+
+    public static final String[] COLUMNS = {"User ID", "Role", "Name", "Gender", "Email", "Phone", "Age"};
+    // users.txt field shown in each column
+    // Format: userID|role|password|name|gender|email|phone|age
+    private static final int[] FIELDS = {0, 1, 3, 4, 5, 6, 7};
+
+    private static final int PAGE_SIZE = 200;
+    private static final int MAX_CACHED_PAGES = 16;
+
+    private final AdminStaff logic;
+    private int[] rows = new int[0];
+
+    // Page number -> rows of that page; least recently used page dropped first
+    private final Map<Integer, List<String[]>> pages =
+        new LinkedHashMap<Integer, List<String[]>>(MAX_CACHED_PAGES * 2, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Integer, List<String[]>> eldest) {
+                return size() > MAX_CACHED_PAGES;
+            }
+        };
+
+    // Current query
+    private String role;
+    // Already normalized (AdminStaff.normalizeSearch)
+    private String search = "";
+    private int sortColumn = -1;
+    private boolean ascending = true;
+
+    public UserTableModel(AdminStaff logic) {
+        this.logic = logic;
+    }
+
+    // ==========================================
+    // 1. QUERY
+    // ==========================================
+    /**
+     * Sets the filter used by the next query()
+     *
+     * @param role Exact role, or null for all
+     * @param search Text to find in the name or email
+     */
+    public void setFilter(String role, String search) {
+        this.role = role;
+        this.search = AdminStaff.normalizeSearch(search);
+    }
+
+    /**
+     * Sorts on a column for the next query(): ascending the first time,
+     * then toggling each time the same column is chosen again
+     */
+    public void toggleSort(int column) {
+        ascending = column != sortColumn || !ascending;
+        sortColumn = column;
+    }
+
+    public int getSortColumn()   { return sortColumn; }
+    public boolean isAscending() { return ascending; }
+
+    /**
+     * Runs the current filter and sort over users.txt. Scans the whole
+     * file, so call it off the EDT and pass the result to setRows().
+     */
+    public int[] query() {
+        return logic.queryUsers(role, search, sortColumn < 0 ? -1 : FIELDS[sortColumn], ascending);
+    }
+
+    /**
+     * Shows a query result; cached pages are dropped
+     */
+    public void setRows(int[] userCodes) {
+        rows = userCodes;
+        pages.clear();
+        fireTableDataChanged();
+    }
+
+    // ==========================================
+    // 2. TABLE MODEL
+    // ==========================================
+    @Override
+    public int getRowCount() {
+        return rows.length;
+    }
+
+    @Override
+    public int getColumnCount() {
+        return COLUMNS.length;
+    }
+
+    @Override
+    public String getColumnName(int column) {
+        String arrow = column != sortColumn ? "" : ascending ? " \u25B2" : " \u25BC";
+        return COLUMNS[column] + arrow;
+    }
+
+    @Override
+    public boolean isCellEditable(int row, int column) {
+        return false;
+    }
+
+    @Override
+    public Object getValueAt(int row, int column) {
+        String[] user = getUser(row);
+        if (user == null) return column == 0 ? IdDictionary.id(rows[row]) : "";
+        return user[FIELDS[column]];
+    }
+
+    /**
+     * @return The user ID shown at a row (available without fetching the row)
+     */
+    public String getUserID(int row) {
+        return IdDictionary.id(rows[row]);
+    }
+
+    /**
+     * @return All users.txt fields of a row, or null if the user has been deleted
+     */
+    public String[] getUser(int row) {
+        int page = row / PAGE_SIZE;
+        List<String[]> users = pages.get(page);
+        if (users == null) {
+            int from = page * PAGE_SIZE;
+            users = logic.getUsersByCode(rows, from, Math.min(from + PAGE_SIZE, rows.length));
+            pages.put(page, users);
+        }
+        return users.get(row - page * PAGE_SIZE);
+    }
+
+    // ==========================================
+    // 3. ROW-LEVEL UPDATES (users.txt Change Events)
+    // ==========================================
+    /**
+     * Applies users.txt changes ({oldLine, newLine} pairs, see
+     * SwingChangeRelay) to the rows without re-running the query.
+     * A change that makes a user match the filter inserts the row at its
+     * sorted position (at the end when unsorted, as new users are appended
+     * to the file); one that makes it stop matching removes the row.
+     */
+    public void applyChanges(List<String[]> changes) {
+        for (String[] change : changes) applyChange(change[0], change[1]);
+    }
+
+    private void applyChange(String oldLine, String newLine) {
+        String line = newLine != null ? newLine : oldLine;
+        int code = RecordStore.fieldCode(line, 0, true);
+        if (code < 0) return;
+        int at = indexOf(code);
+        boolean matches = newLine != null && AdminStaff.userMatches(newLine, role, search);
+
+        if (at >= 0 && matches && !sortKeyChanged(oldLine, newLine)) {
+            pages.remove(at / PAGE_SIZE);
+            fireTableRowsUpdated(at, at);
+            return;
+        }
+        if (at >= 0) removeRow(at);
+        if (matches) insertRow(code, newLine);
+    }
+
+    private boolean sortKeyChanged(String oldLine, String newLine) {
+        if (sortColumn < 0) return false;
+        if (oldLine == null) return true;
+        int field = FIELDS[sortColumn];
+        return !Objects.equals(Fields.get(oldLine, field), Fields.get(newLine, field));
+    }
+
+    private int indexOf(int code) {
+        for (int i = 0; i < rows.length; i++) {
+            if (rows[i] == code) return i;
+        }
+        return -1;
+    }
+
+    private void removeRow(int at) {
+        int[] next = new int[rows.length - 1];
+        System.arraycopy(rows, 0, next, 0, at);
+        System.arraycopy(rows, at + 1, next, at, rows.length - at - 1);
+        rows = next;
+        dropPagesFrom(at);
+        fireTableRowsDeleted(at, at);
+    }
+
+    private void insertRow(int code, String line) {
+        int at = rows.length;
+        if (sortColumn >= 0) {
+            // Binary search for its place in the queryUsers order
+            int field = FIELDS[sortColumn];
+            Comparator<String[]> order = AdminStaff.userSortOrder(field, ascending);
+            String[] key = {Fields.get(line, field), Fields.get(line, 0)};
+            int lo = 0, hi = rows.length;
+            while (lo < hi) {
+                int mid = (lo + hi) >>> 1;
+                String[] user = getUser(mid);
+                String[] midKey = {user == null ? null : user[field], getUserID(mid)};
+                if (order.compare(midKey, key) < 0) lo = mid + 1; else hi = mid;
+            }
+            at = lo;
+        }
+        int[] next = new int[rows.length + 1];
+        System.arraycopy(rows, 0, next, 0, at);
+        next[at] = code;
+        System.arraycopy(rows, at, next, at + 1, rows.length - at);
+        rows = next;
+        dropPagesFrom(at);
+        fireTableRowsInserted(at, at);
+    }
+
+    // Rows from this one on have moved, so their cached pages are stale
+    private void dropPagesFrom(int row) {
+        pages.keySet().removeIf(page -> (page + 1) * PAGE_SIZE > row);
+    }
+}
@@ -0,0 +1,151 @@
+import java.util.*;
+import java.util.concurrent.*;
+
+/**
+ * WeightedGradeEngine.java - Weighted Module Totals
+ * Combines each student's assessment marks into one module total using the
+ * weightage stored by Lecturer.designAssessment (assessments.txt:
+ * assessmentID|moduleID|name|weightage).
+ *
+ *   total = sum(marks x weightage) / sum(weightage)
+ *
+ * summed over the assessments the student has a result for, so the total
+ * stays on the 0-100 scale even when weightages do not add up to 100 or
+ * some assessments are not marked yet. Results whose assessment is missing
+ * from assessments.txt, belongs to another module, or has no positive
+ * weightage cannot be weighted and are left out.
+ *
+ * results.txt is read in one pass. In parallel mode the rows are split into
+ * chunks of CHUNK_SIZE on the ForkJoinPool; each chunk produces partial
+ * per-student sums that are merged pairwise, so the result is the same as
+ * the sequential pass.
+ */
+public class WeightedGradeEngine {
+
+    public static final int CHUNK_SIZE = 8192;
+
+    // ==========================================
+    // COMPUTE TOTALS
+    // ==========================================
+    /**
+     * Computes weighted totals for every student with results in the given modules
+     *
+     * @param moduleIDs Modules to compute
+     * @param parallel true to split the pass over results.txt across the ForkJoinPool
+     * @return moduleID -> (studentID -> weighted total), modules in the given order
+     */
+    public static Map<String, Map<String, Double>> computeTotals(Collection<String> moduleIDs, boolean parallel) {
+        Map<String, Double> weights = loadWeights(moduleIDs);
+        // Copy only the lines of weighted assessments (moduleID|assessmentID, fields 1-2)
+        List<String> lines = Helpers.selectRecords("results.txt",
+            line -> weights.containsKey(Fields.span(line, 1, 2)));
+
+        Map<String, Map<String, double[]>> sums = parallel
+            ? ForkJoinPool.commonPool().invoke(new ChunkTask(lines, 0, lines.size(), weights))
+            : accumulate(lines, 0, lines.size(), weights);
+
+        Map<String, Map<String, Double>> totals = new LinkedHashMap<>();
+        for (String id : moduleIDs) {
+            Map<String, Double> students = new LinkedHashMap<>();
+            Map<String, double[]> acc = sums.get(id);
+            if (acc != null) {
+                for (Map.Entry<String, double[]> e : acc.entrySet()) {
+                    students.put(e.getKey(), e.getValue()[0] / e.getValue()[1]);
+                }
+            }
+            totals.put(id, students);
+        }
+        return totals;
+    }
+
+    // ==========================================
+    // PARTIAL SUMS (Mergeable)
+    // ==========================================
+    /**
+     * Sums lines [from, to) into moduleID -> studentID -> {sum(marks x weight), sum(weight)}
+     */
+    static Map<String, Map<String, double[]>> accumulate(List<String> lines, int from, int to,
+                                                        Map<String, Double> weights) {
+        Map<String, Map<String, double[]>> sums = new LinkedHashMap<>();
+        for (int i = from; i < to; i++) {
+            String line = lines.get(i);
+            if (line.trim().isEmpty()) continue;
+            // results.txt format: studentID|moduleID|assessmentID|marks|feedback
+            String asKey = Fields.span(line, 1, 2);
+            if (asKey == null) continue;
+            Double weight = weights.get(asKey);
+            if (weight == null) continue;
+            double marks = Fields.parseDouble(line, 3, Double.NaN);
+            if (Double.isNaN(marks)) continue;
+            double[] a = sums.computeIfAbsent(Fields.get(line, 1), k -> new LinkedHashMap<>())
+                             .computeIfAbsent(Fields.get(line, 0), k -> new double[2]);
+            a[0] += marks * weight;
+            a[1] += weight;
+        }
+        return sums;
+    }
+
+    /**
+     * Adds right's sums into left (left keeps its key order, new keys go last)
+     */
+    static Map<String, Map<String, double[]>> merge(Map<String, Map<String, double[]>> left,
+                                                   Map<String, Map<String, double[]>> right) {
+        for (Map.Entry<String, Map<String, double[]>> module : right.entrySet()) {
+            Map<String, double[]> into = left.computeIfAbsent(module.getKey(), k -> new LinkedHashMap<>());
+            for (Map.Entry<String, double[]> student : module.getValue().entrySet()) {
+                double[] a = into.get(student.getKey());
+                if (a == null) {
+                    into.put(student.getKey(), student.getValue());
+                } else {
+                    a[0] += student.getValue()[0];
+                    a[1] += student.getValue()[1];
+                }
+            }
+        }
+        return left;
+    }
+
+    /**
+     * Fork/join task over a range of results.txt lines
+     */
+    private static class ChunkTask extends RecursiveTask<Map<String, Map<String, double[]>>> {
+        private final List<String> lines;
+        private final int from, to;
+        private final Map<String, Double> weights;
+
+        ChunkTask(List<String> lines, int from, int to, Map<String, Double> weights) {
+            this.lines = lines;
+            this.from = from;
+            this.to = to;
+            this.weights = weights;
+        }
+
+        @Override
+        protected Map<String, Map<String, double[]>> compute() {
+            if (to - from <= CHUNK_SIZE) return accumulate(lines, from, to, weights);
+            int mid = (from + to) >>> 1;
+            ChunkTask left = new ChunkTask(lines, from, mid, weights);
+            left.fork();
+            Map<String, Map<String, double[]>> right = new ChunkTask(lines, mid, to, weights).compute();
+            return merge(left.join(), right);
+        }
+    }
+
+    // ==========================================
+    // ASSESSMENT WEIGHTS
+    // ==========================================
+    /**
+     * @return moduleID|assessmentID -> weightage, for assessments of the given modules
+     */
+    static Map<String, Double> loadWeights(Collection<String> moduleIDs) {
+        Map<String, Double> weights = new HashMap<>();
+        for (String moduleID : moduleIDs) {
+            // assessments.txt format: assessmentID|moduleID|name|weightage
+            for (String line : Helpers.findRecordsByField("assessments.txt", 1, moduleID)) {
+                double w = Fields.parseDouble(line, 3, Double.NaN);
+                if (w > 0) weights.put(moduleID + "|" + Fields.get(line, 0), w);
+            }
+        }
+        return weights;
+    }
+}